@@ -0,0 +1,70 @@
+#!/usr/bin/env bash
+# Compares the throughput of dispatch-heavy code without and with the agent that makes private methods static at
+# load time. The workload calls small private helpers from a hot loop, with the interpreter only and with the JIT,
+# as the agent saves the receiver of each call, which matters most before the calls are inlined.
+# Build first with: mvn -f runner/pom.xml package -Pcds
+#
+# Usage: runner/agent-benchmark.sh [runs]
+set -euo pipefail
+
+cd "$(dirname "$0")"
+runs="${1:-5}"
+jar="$(ls target/*-all.jar)"
+work=target/agent-benchmark
+java="${JAVA_HOME:+$JAVA_HOME/bin/}java"
+javac="${JAVA_HOME:+$JAVA_HOME/bin/}javac"
+
+mkdir -p "$work/bench"
+cat > "$work/bench/Dispatch.java" <<'JAVA'
+package bench;
+
+public class Dispatch {
+    private long mix(long h, int v) {
+        return (h ^ v) * 0x100000001b3L;
+    }
+
+    private int scale(int v, int factor) {
+        return v * factor + 1;
+    }
+
+    private boolean keep(long h) {
+        return (h & 1) == 0;
+    }
+
+    long run(int iterations) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < iterations; i++) {
+            h = mix(h, scale(i, 31));
+            if (keep(h)) {
+                h = mix(h, i);
+            }
+        }
+        return h;
+    }
+
+    public static void main(String[] args) {
+        int iterations = Integer.parseInt(args[0]);
+        long start = System.nanoTime();
+        long h = new Dispatch().run(iterations);
+        System.out.println((System.nanoTime() - start) / 1_000_000 + " " + h);
+    }
+}
+JAVA
+"$javac" -d "$work" "$work/bench/Dispatch.java"
+
+measure() {
+  local label="$1" iterations="$2"
+  shift 2
+  local total=0
+  for ((i = 0; i < runs; i++)); do
+    local millis
+    millis=$("$java" "$@" -cp "$work" bench.Dispatch "$iterations" | cut -d' ' -f1)
+    total=$((total + millis))
+  done
+  printf '%-28s %6d ms per run\n' "$label" $((total / runs))
+}
+
+measure "interpreted" 20000000 -Xint
+measure "interpreted + agent" 20000000 -Xint -javaagent:"$jar"=bench
+measure "JIT" 500000000
+measure "JIT + agent" 500000000 -javaagent:"$jar"=bench
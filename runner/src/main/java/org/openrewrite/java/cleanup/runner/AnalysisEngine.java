@@ -0,0 +1,204 @@
+package org.openrewrite.java.cleanup.runner;
+
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.Parser;
+import org.openrewrite.Recipe;
+import org.openrewrite.Result;
+import org.openrewrite.SourceFile;
+import org.openrewrite.internal.lang.Nullable;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.java.cleanup.MethodNotAccessingInstanceDataShouldBeStatic;
+import org.openrewrite.java.cleanup.RecipeLatencies;
+import org.openrewrite.java.cleanup.SupertypeMembers;
+import org.openrewrite.java.tree.J;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing and recipe execution shared by every way of running the recipe. Parsers are handed in by the caller,
+ * which decides how long they live and therefore how warm they stay: one per worker thread for a run, a pool for
+ * the daemon.
+ */
+class AnalysisEngine {
+    private final RunnerOptions options;
+    private final PrintStream err;
+    private final Recipe recipe = new MethodNotAccessingInstanceDataShouldBeStatic();
+    @Nullable
+    private final TypeTable typeTable;
+    @Nullable
+    private final TreeCache treeCache;
+
+    AnalysisEngine(final RunnerOptions options, final PrintStream err) {
+        this.options = options;
+        this.err = err;
+        this.typeTable = loadTypeTable(options, err);
+        this.treeCache = openTreeCache(options, err);
+    }
+
+    @Nullable
+    private static TreeCache openTreeCache(final RunnerOptions options, final PrintStream err) {
+        if (options.getTreeCache() == null) {
+            return null;
+        }
+
+        try {
+            return new TreeCache(options.getTreeCache(), options.getClasspath());
+        } catch (IOException | RuntimeException e) {
+            err.println("Not using the tree cache in " + options.getTreeCache() + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    @Nullable
+    private static TypeTable loadTypeTable(final RunnerOptions options, final PrintStream err) {
+        if (options.getTypeCache() == null) {
+            return null;
+        }
+
+        try {
+            return TypeTable.load(options.getClasspath(), options.getTypeCache());
+        } catch (IOException | RuntimeException e) {
+            err.println("Not using the type cache in " + options.getTypeCache() + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    JavaParser newParser() {
+        return JavaParser.fromJavaVersion()
+                .classpath(options.getClasspath())
+                .logCompilationWarningsAndErrors(false)
+                .build();
+    }
+
+    ExecutionContext newExecutionContext() {
+        final ExecutionContext ctx = new InMemoryExecutionContext(t -> err.println("rewrite: " + t.getMessage()));
+        if (typeTable != null) {
+            ctx.putMessage(SupertypeMembers.CONTEXT_KEY, typeTable);
+        }
+        if (options.isNameBased()) {
+            ctx.putMessage(MethodNotAccessingInstanceDataShouldBeStatic.NAME_BASED_CONTEXT_KEY, true);
+        }
+        if (options.isSearch()) {
+            ctx.putMessage(options.isExplain() ? MethodNotAccessingInstanceDataShouldBeStatic.EXPLAIN_CONTEXT_KEY :
+                    MethodNotAccessingInstanceDataShouldBeStatic.SEARCH_CONTEXT_KEY, true);
+        }
+        return ctx;
+    }
+
+    static List<Parser.Input> read(final List<Path> files) throws IOException {
+        final List<Parser.Input> inputs = new ArrayList<>(files.size());
+        for (Path path : files) {
+            final byte[] source = Files.readAllBytes(path);
+            inputs.add(new Parser.Input(path, () -> new ByteArrayInputStream(source)));
+        }
+        return inputs;
+    }
+
+    List<SourceFile> parse(final JavaParser parser, final Path root, final List<Parser.Input> inputs,
+                           final RunStats stats) {
+        if (inputs.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        final long start = System.nanoTime();
+        final String key = cacheKey(root, inputs);
+        if (key != null) {
+            final List<SourceFile> cached = loadCached(key);
+            if (cached != null) {
+                stats.loadedFromCache(cached.size(), System.nanoTime() - start);
+                return cached;
+            }
+        }
+
+        try {
+            final List<SourceFile> cus = new ArrayList<>(parser.parseInputs(inputs, root, newExecutionContext()));
+            stats.parsed(cus.size(), System.nanoTime() - start);
+            stats.parseFailed(inputs.size() - cus.size());
+            if (key != null && cus.size() == inputs.size()) {
+                store(key, cus);
+            }
+            return cus;
+        } catch (RuntimeException e) {
+            err.println("Failed to parse batch starting at " + inputs.get(0).getPath() + ": " + e.getMessage());
+            stats.parseFailed(inputs.size());
+            return new ArrayList<>();
+        } finally {
+            // Drop the compilation units of this batch, but keep the compiler and its caches for the next one.
+            parser.reset();
+        }
+    }
+
+    @Nullable
+    private String cacheKey(final Path root, final List<Parser.Input> inputs) {
+        if (treeCache == null) {
+            return null;
+        }
+
+        try {
+            return treeCache.key(root, inputs, newExecutionContext());
+        } catch (IOException | RuntimeException e) {
+            err.println("Failed to hash batch starting at " + inputs.get(0).getPath() + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    @Nullable
+    private List<SourceFile> loadCached(final String key) {
+        try {
+            return Objects.requireNonNull(treeCache).load(key);
+        } catch (IOException | RuntimeException e) {
+            err.println("Ignoring cached trees " + key + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void store(final String key, final List<SourceFile> sourceFiles) {
+        try {
+            Objects.requireNonNull(treeCache).store(key, sourceFiles);
+        } catch (IOException | RuntimeException e) {
+            err.println("Failed to cache trees " + key + ": " + e.getMessage());
+        }
+    }
+
+    List<Result> analyze(final List<SourceFile> sourceFiles, final RunStats stats) {
+        return analyze(sourceFiles, stats, new HashSet<>());
+    }
+
+    /**
+     * @param failed gets the source paths of the files the recipe failed on, which have no result.
+     */
+    List<Result> analyze(final List<SourceFile> sourceFiles, final RunStats stats, final Set<Path> failed) {
+        if (sourceFiles.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        final long start = System.nanoTime();
+        final ExecutionContext ctx = newExecutionContext();
+        ctx.putMessage(RecipeLatencies.CONTEXT_KEY,
+                stats.latencies(TimeUnit.MILLISECONDS.toNanos(options.getSlowFileMillis())));
+        final List<Result> results = new ArrayList<>(recipe.run(sourceFiles, ctx).getResults());
+        // A file the recipe failed on prints the error as a comment; the failure was reported, the file is left be.
+        results.removeIf(result -> {
+            if (result.getRecipeErrors().isEmpty()) {
+                return false;
+            }
+            if (result.getBefore() != null) {
+                failed.add(result.getBefore().getSourcePath());
+            }
+            return true;
+        });
+        stats.analyzed(results.size(), System.nanoTime() - start);
+        return results;
+    }
+}
@@ -0,0 +1,132 @@
+package org.openrewrite.java.cleanup.runner;
+
+import org.openrewrite.Result;
+import org.openrewrite.SourceFile;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Writes changed sources back through a temp file next to each source that is renamed over it, so that a run that
+ * is killed leaves every source either as it was or as it was meant to be. A batch is written in path order, and
+ * with fsync all of its temp files are written before the first is synced, and each directory is synced once after
+ * the renames, rather than waiting on the disk once per file.
+ */
+final class AtomicWriter implements ResultWriter {
+    private final boolean fsync;
+
+    AtomicWriter(final boolean fsync) {
+        this.fsync = fsync;
+    }
+
+    @Override
+    public void write(final Path root, final Result result) throws IOException {
+        write(root, List.of(result));
+    }
+
+    @Override
+    public void write(final Path root, final List<Result> results) throws IOException {
+        final List<SourceFile> changed = new ArrayList<>(results.size());
+        for (Result result : results) {
+            if (result.getAfter() != null) {
+                changed.add(result.getAfter());
+            }
+        }
+        changed.sort(Comparator.comparing(sourceFile -> sourceFile.getSourcePath().toString()));
+
+        final List<Path> targets = new ArrayList<>(changed.size());
+        final List<Path> temps = new ArrayList<>(changed.size());
+        try {
+            for (SourceFile sourceFile : changed) {
+                final Path target = root.resolve(sourceFile.getSourcePath());
+                targets.add(target);
+                temps.add(stage(target, sourceFile.printAllAsBytes()));
+            }
+            commit(temps, targets);
+        } finally {
+            for (Path temp : temps) {
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+
+    /**
+     * Replaces a single file, as the coordinator does with the changes its workers send back.
+     */
+    void write(final Path target, final byte[] bytes) throws IOException {
+        final Path temp = stage(target, bytes);
+        try {
+            commit(List.of(temp), List.of(target));
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private Path stage(final Path target, final byte[] bytes) throws IOException {
+        final Path temp = Files.createTempFile(target.getParent(), "." + target.getFileName(), ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        keepPermissions(target, temp);
+        return temp;
+    }
+
+    private void commit(final List<Path> temps, final List<Path> targets) throws IOException {
+        if (fsync) {
+            for (Path temp : temps) {
+                try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                    channel.force(true);
+                }
+            }
+        }
+
+        final Set<Path> directories = new LinkedHashSet<>();
+        for (int i = 0; i < temps.size(); i++) {
+            Files.move(temps.get(i), targets.get(i), StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+            directories.add(targets.get(i).getParent());
+        }
+
+        if (fsync) {
+            for (Path directory : directories) {
+                syncDirectory(directory);
+            }
+        }
+    }
+
+    /**
+     * Temp files are created readable by their owner only; the source keeps the permissions it had.
+     */
+    private static void keepPermissions(final Path target, final Path temp) throws IOException {
+        final PosixFileAttributeView view = Files.getFileAttributeView(target, PosixFileAttributeView.class);
+        if (view != null && Files.exists(target)) {
+            Files.setPosixFilePermissions(temp, view.readAttributes().permissions());
+        }
+    }
+
+    /**
+     * Makes the renames durable. Not every platform can open a directory to sync it, in which case the rename is
+     * as durable as the file system makes it on its own.
+     */
+    private static void syncDirectory(final Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException ignored) {
+            // Windows cannot open directories.
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package org.openrewrite.java.cleanup.runner;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.openrewrite.internal.lang.Nullable;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Which source files can declare a method the recipe would make static, read from the classes a build already
+ * compiled them to. A candidate is a private or final instance method with code that never loads local slot 0,
+ * which holds {@code this}. Classes are mapped back to their source file by their package and their
+ * {@code SourceFile} attribute, so nested and secondary classes count towards the file they are declared in.
+ * <p>
+ * A source only counts as known when it is older than every class compiled from it, as a class older than its source
+ * may not reflect it. Sources without classes are not known either, and the lexical screen alone decides for them.
+ */
+final class BytecodeScreen {
+    private static final int NOT_CANDIDATE_ACCESS = Opcodes.ACC_STATIC | Opcodes.ACC_ABSTRACT | Opcodes.ACC_NATIVE |
+            Opcodes.ACC_SYNTHETIC | Opcodes.ACC_BRIDGE;
+
+    private record Compiled(boolean candidate, FileTime oldestClass) {
+    }
+
+    /**
+     * By the path of the source below its source root, such as {@code org/example/Foo.java}.
+     */
+    private final Map<String, Compiled> sources;
+
+    private BytecodeScreen(final Map<String, Compiled> sources) {
+        this.sources = sources;
+    }
+
+    static BytecodeScreen load(final List<Path> classDirectories) throws IOException {
+        final Map<String, Compiled> sources = new HashMap<>();
+        for (Path directory : classDirectories) {
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path classFile : (Iterable<Path>) files.filter(BytecodeScreen::isClassFile)::iterator) {
+                    scan(Files.readAllBytes(classFile), Files.getLastModifiedTime(classFile), sources);
+                }
+            }
+        }
+        return new BytecodeScreen(sources);
+    }
+
+    /**
+     * @return whether the compiled classes of {@code file} have a candidate, or null if there are none that are
+     * up to date with it.
+     */
+    @Nullable
+    Boolean candidate(final Path file) {
+        final Compiled compiled = lookup(file);
+        try {
+            if (compiled == null || Files.getLastModifiedTime(file).compareTo(compiled.oldestClass()) > 0) {
+                return null;
+            }
+        } catch (IOException e) {
+            return null;
+        }
+        return compiled.candidate();
+    }
+
+    /**
+     * Source roots may be anything from a package directory to the root of a repository, so the path of the file is
+     * matched from its name outwards against the paths the classes give.
+     */
+    @Nullable
+    private Compiled lookup(final Path file) {
+        final Path absolute = file.toAbsolutePath().normalize();
+        Compiled found = null;
+        for (int i = absolute.getNameCount() - 1; i >= 0; i--) {
+            final Compiled compiled = sources.get(absolute.subpath(i, absolute.getNameCount()).toString()
+                    .replace('\\', '/'));
+            if (compiled != null) {
+                found = compiled;
+            }
+        }
+        return found;
+    }
+
+    private static boolean isClassFile(final Path file) {
+        final String name = file.getFileName().toString();
+        return name.endsWith(".class") && !name.equals("module-info.class") && !name.equals("package-info.class");
+    }
+
+    private static void scan(final byte[] classFile, final FileTime modified, final Map<String, Compiled> sources) {
+        new ClassReader(classFile).accept(new ClassVisitor(Opcodes.ASM9) {
+            private String packagePath = "";
+            private String sourceFile = "";
+            private boolean candidate;
+
+            @Override
+            public void visit(final int version, final int access, final String name, final String signature,
+                              final String superName, final String[] interfaces) {
+                final int slash = name.lastIndexOf('/');
+                packagePath = slash == -1 ? "" : name.substring(0, slash + 1);
+                // Classes compiled without a SourceFile attribute are taken to be declared where javac looks for them.
+                final int nested = name.indexOf('$', slash + 1);
+                sourceFile = name.substring(slash + 1, nested == -1 ? name.length() : nested) + ".java";
+            }
+
+            @Override
+            public void visitSource(final String source, final String debug) {
+                sourceFile = source;
+            }
+
+            @Override
+            public MethodVisitor visitMethod(final int access, final String name, final String descriptor,
+                                             final String signature, final String[] exceptions) {
+                if (candidate || (access & (Opcodes.ACC_PRIVATE | Opcodes.ACC_FINAL)) == 0 ||
+                    (access & NOT_CANDIDATE_ACCESS) != 0 || name.startsWith("<")) {
+                    return null;
+                }
+                return new MethodVisitor(Opcodes.ASM9) {
+                    private boolean loadsThis;
+
+                    @Override
+                    public void visitVarInsn(final int opcode, final int varIndex) {
+                        loadsThis |= opcode == Opcodes.ALOAD && varIndex == 0;
+                    }
+
+                    @Override
+                    public void visitEnd() {
+                        candidate |= !loadsThis;
+                    }
+                };
+            }
+
+            @Override
+            public void visitEnd() {
+                sources.merge(packagePath + sourceFile, new Compiled(candidate, modified),
+                        (a, b) -> new Compiled(a.candidate() || b.candidate(),
+                                a.oldestClass().compareTo(b.oldestClass()) < 0 ? a.oldestClass() : b.oldestClass()));
+            }
+        }, ClassReader.SKIP_FRAMES);
+    }
+}
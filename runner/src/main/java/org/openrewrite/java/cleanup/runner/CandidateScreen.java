@@ -0,0 +1,235 @@
+package org.openrewrite.java.cleanup.runner;
+
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.Parser;
+import org.openrewrite.internal.lang.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Tells from the tokens of a source, without parsing it, whether it can declare a method the recipe would make
+ * static: one with a {@code private} or {@code final} modifier and without {@code static}. Comments, strings, text
+ * blocks and character literals are skipped, and a source the tokenizer is unsure of, such as one with unicode
+ * escapes, always passes.
+ * <p>
+ * Files of a batch that cannot have candidates are left out of its parse, except for those declaring a type that a
+ * parsed file names, directly or through another such file, since the parsed files need those to be attributed.
+ */
+final class CandidateScreen {
+    private static final Set<String> MODIFIERS = Set.of("public", "protected", "private", "static", "final",
+            "abstract", "synchronized", "native", "strictfp", "transient", "volatile", "default", "sealed");
+    private static final Set<String> DECLARATIONS = Set.of("class", "interface", "enum", "record");
+    private static final Set<String> DECLARATION_ENDS = Set.of(";", "=", "{", "}", ")");
+
+    /**
+     * @param candidate whether the source can declare a method the recipe would change.
+     * @param declared  the simple names of the types the source declares.
+     * @param mentioned every identifier of the source.
+     */
+    record Scan(boolean candidate, Set<String> declared, Set<String> mentioned) {
+    }
+
+    private CandidateScreen() {
+    }
+
+    /**
+     * @param rewritable the files of the batch the recipe runs on, as opposed to those parsed for their types only.
+     * @param ruledOut   the files that other sources, such as their compiled classes, show to have no candidate
+     *                   whatever their tokens say.
+     * @param ctx        the context the inputs are read with.
+     * @return the inputs that need to be parsed, in their original order.
+     */
+    static List<Parser.Input> screen(final Path root, final List<Parser.Input> inputs, final Set<Path> rewritable,
+                                     final Predicate<Path> ruledOut, final ExecutionContext ctx) throws IOException {
+        final List<Scan> scans = new ArrayList<>(inputs.size());
+        final boolean[] kept = new boolean[inputs.size()];
+        final Deque<Integer> pending = new ArrayDeque<>();
+        for (int i = 0; i < inputs.size(); i++) {
+            final Parser.Input input = inputs.get(i);
+            final Scan scan;
+            try (InputStream source = input.getSource(ctx)) {
+                scan = scan(new String(source.readAllBytes(), StandardCharsets.UTF_8));
+            }
+            scans.add(scan);
+            final Path file = root.resolve(input.getRelativePath(root));
+            if (scan.candidate() && rewritable.contains(file) && !ruledOut.test(file)) {
+                kept[i] = true;
+                pending.add(i);
+            }
+        }
+
+        while (!pending.isEmpty()) {
+            final Set<String> mentioned = scans.get(pending.poll()).mentioned();
+            for (int j = 0; j < kept.length; j++) {
+                if (!kept[j] && !Collections.disjoint(scans.get(j).declared(), mentioned)) {
+                    kept[j] = true;
+                    pending.add(j);
+                }
+            }
+        }
+
+        final List<Parser.Input> screened = new ArrayList<>();
+        for (int i = 0; i < inputs.size(); i++) {
+            if (kept[i]) {
+                screened.add(inputs.get(i));
+            }
+        }
+        return screened;
+    }
+
+    static Scan scan(final String source) {
+        final List<String> tokens = tokens(source);
+        if (tokens == null) {
+            return new Scan(true, Collections.emptySet(), Collections.emptySet());
+        }
+
+        final Set<String> declared = new HashSet<>();
+        final Set<String> mentioned = new HashSet<>();
+        boolean candidate = false;
+        int modifiersEnd = 0;
+        for (int i = 0; i < tokens.size(); i++) {
+            final String token = tokens.get(i);
+            if (Character.isJavaIdentifierStart(token.charAt(0))) {
+                mentioned.add(token);
+                if (i > 0 && DECLARATIONS.contains(tokens.get(i - 1))) {
+                    declared.add(token);
+                }
+            }
+            if (!candidate && i >= modifiersEnd && (MODIFIERS.contains(token) || token.equals("@"))) {
+                modifiersEnd = modifiersEnd(tokens, i);
+                candidate = isCandidateMethod(tokens, i, modifiersEnd);
+            }
+        }
+        return new Scan(candidate, declared, mentioned);
+    }
+
+    /**
+     * @return the index of the first token after the modifiers and annotations that start at {@code start}.
+     */
+    private static int modifiersEnd(final List<String> tokens, final int start) {
+        int i = start;
+        while (i < tokens.size()) {
+            if (tokens.get(i).equals("@")) {
+                i = skipAnnotation(tokens, i + 1);
+            } else if (MODIFIERS.contains(tokens.get(i))) {
+                i++;
+            } else {
+                break;
+            }
+        }
+        return i;
+    }
+
+    /**
+     * Whether the modifiers hold {@code private} or {@code final} but not {@code static}, and a method name and its
+     * opening parenthesis follow them before anything that ends a field, a parameter or a local variable.
+     */
+    private static boolean isCandidateMethod(final List<String> tokens, final int start, final int end) {
+        final List<String> modifiers = tokens.subList(start, end);
+        if (!(modifiers.contains("private") || modifiers.contains("final")) || modifiers.contains("static")) {
+            return false;
+        }
+
+        for (int i = end; i < tokens.size() && !DECLARATION_ENDS.contains(tokens.get(i)); i++) {
+            if (tokens.get(i).equals("(")) {
+                return i > end && Character.isJavaIdentifierStart(tokens.get(i - 1).charAt(0));
+            }
+        }
+        return false;
+    }
+
+    private static int skipAnnotation(final List<String> tokens, final int start) {
+        int i = start + 1;
+        while (i + 1 < tokens.size() && tokens.get(i).equals(".")) {
+            i += 2;
+        }
+        if (i < tokens.size() && tokens.get(i).equals("(")) {
+            int depth = 0;
+            for (; i < tokens.size(); i++) {
+                if (tokens.get(i).equals("(")) {
+                    depth++;
+                } else if (tokens.get(i).equals(")") && --depth == 0) {
+                    return i + 1;
+                }
+            }
+        }
+        return i;
+    }
+
+    /**
+     * @return the identifiers and punctuation of the source, or null if it cannot be tokenized with certainty.
+     */
+    @Nullable
+    private static List<String> tokens(final String source) {
+        if (source.contains("\\u")) {
+            // A unicode escape can stand for a quote or a line break anywhere in the source.
+            return null;
+        }
+
+        final List<String> tokens = new ArrayList<>();
+        final int length = source.length();
+        int i = 0;
+        while (i < length) {
+            final char c = source.charAt(i);
+            if (c == '/' && i + 1 < length && source.charAt(i + 1) == '/') {
+                final int end = source.indexOf('\n', i);
+                i = end == -1 ? length : end + 1;
+            } else if (c == '/' && i + 1 < length && source.charAt(i + 1) == '*') {
+                final int end = source.indexOf("*/", i + 2);
+                if (end == -1) {
+                    return null;
+                }
+                i = end + 2;
+            } else if (source.startsWith("\"\"\"", i)) {
+                i = skipQuoted(source, i + 3, "\"\"\"");
+            } else if (c == '"' || c == '\'') {
+                i = skipQuoted(source, i + 1, String.valueOf(c));
+            } else if (Character.isJavaIdentifierStart(c)) {
+                final int begin = i;
+                while (i < length && Character.isJavaIdentifierPart(source.charAt(i))) {
+                    i++;
+                }
+                tokens.add(source.substring(begin, i));
+            } else if (Character.isDigit(c)) {
+                while (i < length && (Character.isJavaIdentifierPart(source.charAt(i)) || source.charAt(i) == '.')) {
+                    i++;
+                }
+            } else {
+                if (!Character.isWhitespace(c)) {
+                    tokens.add(String.valueOf(c));
+                }
+                i++;
+            }
+            if (i < 0) {
+                return null;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * @return the index just after the closing quote, or -1 if there is none.
+     */
+    private static int skipQuoted(final String source, final int start, final String quote) {
+        for (int i = start; i < source.length(); i++) {
+            final char c = source.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (source.startsWith(quote, i)) {
+                return i + quote.length();
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,134 @@
+package org.openrewrite.java.cleanup.runner;
+
+import org.openrewrite.internal.lang.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToIntFunction;
+
+/**
+ * A bounded queue between two pipeline stages. Producers block once the channel is full, which is what keeps
+ * the number of batches in flight, and therefore the heap, flat. The channel ends once every producer closed it.
+ * <p>
+ * A channel can be split into lanes, one per consumer. Consumer {@code i} takes from lane {@code i} until every
+ * item scheduled for that lane has been taken, and only then steals from the fullest other lane.
+ */
+final class Channel<T> {
+    private final int capacity;
+    private final ToIntFunction<? super T> laneOf;
+    private final List<ArrayDeque<T>> lanes = new ArrayList<>();
+    @Nullable
+    private final int[] scheduled;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private final Condition notEmpty = lock.newCondition();
+    private int size;
+    private int producers;
+
+    Channel(final int capacity) {
+        this(capacity, 1, item -> 0, null);
+    }
+
+    /**
+     * @param scheduled how many items each lane will receive in total, or null to let consumers steal any time.
+     */
+    Channel(final int capacity, final int laneCount, final ToIntFunction<? super T> laneOf,
+            @Nullable final int[] scheduled) {
+        this.capacity = capacity;
+        this.laneOf = laneOf;
+        this.scheduled = scheduled == null ? null : scheduled.clone();
+        for (int i = 0; i < laneCount; i++) {
+            lanes.add(new ArrayDeque<>());
+        }
+    }
+
+    /**
+     * Registers a producer. Every producer has to be registered before any consumer starts taking.
+     */
+    void open() {
+        lock.lock();
+        try {
+            producers++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void put(final T item) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (size >= capacity) {
+                notFull.await();
+            }
+            lanes.get(lane(item)).addLast(item);
+            size++;
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void close() {
+        lock.lock();
+        try {
+            producers--;
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the next item for the given consumer, or null once all producers closed the channel and it has been
+     * drained.
+     */
+    @Nullable
+    T take(final int consumer) throws InterruptedException {
+        final int own = consumer % lanes.size();
+
+        lock.lockInterruptibly();
+        try {
+            while (true) {
+                T item = lanes.get(own).pollFirst();
+                if (item == null && (scheduled == null || scheduled[own] == 0 || producers == 0)) {
+                    item = steal();
+                }
+
+                if (item != null) {
+                    size--;
+                    if (scheduled != null) {
+                        scheduled[lane(item)]--;
+                    }
+                    notFull.signalAll();
+                    return item;
+                }
+
+                if (producers == 0) {
+                    return null;
+                }
+                notEmpty.await();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Nullable
+    private T steal() {
+        ArrayDeque<T> fullest = null;
+        for (ArrayDeque<T> lane : lanes) {
+            if (!lane.isEmpty() && (fullest == null || lane.size() > fullest.size())) {
+                fullest = lane;
+            }
+        }
+        return fullest == null ? null : fullest.pollFirst();
+    }
+
+    private int lane(final T item) {
+        return Math.floorMod(laneOf.applyAsInt(item), lanes.size());
+    }
+}
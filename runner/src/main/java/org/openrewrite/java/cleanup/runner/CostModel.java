@@ -0,0 +1,26 @@
+package org.openrewrite.java.cleanup.runner;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Estimates how expensive a source file is to parse and analyze from its size alone, which the file system knows
+ * without the file being read before the pipeline reads it anyway.
+ */
+final class CostModel {
+
+    private CostModel() {
+    }
+
+    /**
+     * @return the size of the file in bytes, or 0 if it cannot be read; the read stage reports such a file.
+     */
+    static long estimate(final Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
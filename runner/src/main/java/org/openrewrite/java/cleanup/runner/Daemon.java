@@ -0,0 +1,162 @@
+package org.openrewrite.java.cleanup.runner;
+
+import org.openrewrite.Result;
+import org.openrewrite.SourceFile;
+import org.openrewrite.internal.lang.Nullable;
+import org.openrewrite.java.JavaParser;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps parsers, their type caches and the loaded classes warm between runs and serves requests on a Unix domain
+ * socket. A request is a command line {@code ANALYZE|APPLY|PING|SHUTDOWN <working directory>}, followed by one
+ * absolute source path per line and an empty line. The response is a single line {@code OK <changed files>
+ * <millis> <payload bytes>} followed by the payload, which holds the diffs for ANALYZE and the changed paths for
+ * APPLY, or a single line {@code ERROR <message>}.
+ */
+public class Daemon {
+    static final String ANALYZE = "ANALYZE";
+    static final String APPLY = "APPLY";
+    static final String PING = "PING";
+    static final String SHUTDOWN = "SHUTDOWN";
+
+    private final RunnerOptions options;
+    private final Path socket;
+    private final PrintStream err;
+    private final AnalysisEngine engine;
+    private volatile boolean running = true;
+    @Nullable
+    private ParserPool parsers;
+
+    public Daemon(final RunnerOptions options, final Path socket, final PrintStream err) {
+        this.options = options;
+        this.socket = socket;
+        this.err = err;
+        this.engine = new AnalysisEngine(options, err);
+    }
+
+    public void serve() throws IOException, InterruptedException {
+        parsers = new ParserPool(engine, options.getThreads());
+
+        Files.deleteIfExists(socket);
+        final ExecutorService connections = Threads.io("daemon");
+        try (ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+            server.bind(UnixDomainSocketAddress.of(socket));
+            err.println("Listening on " + socket);
+
+            while (running) {
+                final SocketChannel client = server.accept();
+                connections.submit(() -> {
+                    handle(client);
+                    return null;
+                });
+            }
+        } finally {
+            connections.shutdown();
+            connections.awaitTermination(10, TimeUnit.SECONDS);
+            Files.deleteIfExists(socket);
+        }
+    }
+
+    private void handle(final SocketChannel client) throws IOException, InterruptedException {
+        try (client;
+             BufferedReader in = new BufferedReader(new InputStreamReader(Channels.newInputStream(client),
+                     StandardCharsets.UTF_8));
+             OutputStream out = Channels.newOutputStream(client)) {
+            final String header = in.readLine();
+            if (header == null) {
+                return;
+            }
+
+            final String[] command = header.split(" ", 2);
+            final List<Path> files = new ArrayList<>();
+            for (String line = in.readLine(); line != null && !line.isEmpty(); line = in.readLine()) {
+                files.add(Paths.get(line));
+            }
+
+            try {
+                switch (command[0]) {
+                    case PING:
+                        respond(out, 0, 0, new byte[0]);
+                        break;
+                    case SHUTDOWN:
+                        running = false;
+                        respond(out, 0, 0, new byte[0]);
+                        // Unblock the accept loop so that it sees the daemon is no longer running.
+                        SocketChannel.open(UnixDomainSocketAddress.of(socket)).close();
+                        break;
+                    case ANALYZE:
+                    case APPLY:
+                        run(command[0], Paths.get(command.length > 1 ? command[1] : ""), files, out);
+                        break;
+                    default:
+                        error(out, "Unknown command " + command[0]);
+                }
+            } catch (IOException | RuntimeException e) {
+                error(out, String.valueOf(e.getMessage()));
+            }
+        }
+    }
+
+    private void run(final String command, final Path workingDirectory, final List<Path> files,
+                     final OutputStream out) throws IOException, InterruptedException {
+        final long start = System.nanoTime();
+        final RunStats stats = new RunStats();
+
+        final ParserPool pool = Objects.requireNonNull(parsers);
+        final JavaParser parser = pool.take();
+        final List<SourceFile> sourceFiles;
+        try {
+            sourceFiles = engine.parse(parser, workingDirectory, AnalysisEngine.read(files), stats);
+        } finally {
+            pool.release(parser);
+        }
+
+        final List<Result> results = engine.analyze(sourceFiles, stats);
+        final ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        final PrintStream print = new PrintStream(payload, true, StandardCharsets.UTF_8);
+        for (Result result : results) {
+            if (command.equals(APPLY)) {
+                ResultWriter.inPlace().write(workingDirectory, result);
+                print.println(result.getAfter() == null ? "" : result.getAfter().getSourcePath());
+            } else {
+                ResultWriter.diff(print, workingDirectory).write(workingDirectory, result);
+            }
+        }
+
+        respond(out, results.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                payload.toByteArray());
+    }
+
+    private static void respond(final OutputStream out, final int changed, final long millis, final byte[] payload)
+            throws IOException {
+        out.write(("OK " + changed + " " + millis + " " + payload.length + "\n").getBytes(StandardCharsets.UTF_8));
+        out.write(payload);
+        out.flush();
+    }
+
+    private void error(final OutputStream out, final String message) throws IOException {
+        err.println("Request failed: " + message);
+        out.write(("ERROR " + message.replace('\n', ' ') + "\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+}
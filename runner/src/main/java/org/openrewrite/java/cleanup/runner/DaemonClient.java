@@ -0,0 +1,64 @@
+package org.openrewrite.java.cleanup.runner;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Sends one request to a running {@link Daemon} and prints its payload. Deliberately uses nothing but the JDK, so
+ * that a client JVM starts without loading any rewrite classes.
+ */
+public final class DaemonClient {
+    private DaemonClient() {
+    }
+
+    /**
+     * @return the exit code for the command line: 0 on success, 1 if the daemon reported an error.
+     */
+    public static int send(final Path socket, final String command, final Path workingDirectory,
+                           final List<Path> files, final PrintStream out, final PrintStream err) throws IOException {
+        try (SocketChannel channel = SocketChannel.open(UnixDomainSocketAddress.of(socket))) {
+            final OutputStream request = Channels.newOutputStream(channel);
+            final StringBuilder sb = new StringBuilder()
+                    .append(command.toUpperCase(Locale.ROOT)).append(' ')
+                    .append(workingDirectory.toAbsolutePath()).append('\n');
+            for (Path file : files) {
+                sb.append(workingDirectory.resolve(file).toAbsolutePath()).append('\n');
+            }
+            sb.append('\n');
+            request.write(sb.toString().getBytes(StandardCharsets.UTF_8));
+            request.flush();
+
+            final InputStream response = new BufferedInputStream(Channels.newInputStream(channel));
+            final String status = readLine(response);
+            if (!status.startsWith("OK ")) {
+                err.println(status);
+                return 1;
+            }
+
+            final String[] fields = status.split(" ");
+            out.write(response.readNBytes(Integer.parseInt(fields[3])));
+            out.flush();
+            err.printf("%s files changed in %s ms%n", fields[1], fields[2]);
+            return 0;
+        }
+    }
+
+    private static String readLine(final InputStream in) throws IOException {
+        final ByteArrayOutputStream line = new ByteArrayOutputStream();
+        for (int b = in.read(); b != -1 && b != '\n'; b = in.read()) {
+            line.write(b);
+        }
+        return line.toString(StandardCharsets.UTF_8);
+    }
+}
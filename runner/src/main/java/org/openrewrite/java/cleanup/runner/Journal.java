@@ -0,0 +1,244 @@
+package org.openrewrite.java.cleanup.runner;
+
+import org.openrewrite.internal.lang.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The files a run is done with, so that a run that was killed can be started again and pick up where it stopped.
+ * After each batch of a run, or each shard of a sharded run, is written, an entry with every file of it is appended
+ * and flushed. An entry holds per file its path, the SHA-256 of its contents once written and, on a dry run, the diff
+ * that was printed for it. A restarted run skips the files whose contents still match and prints their diffs again,
+ * so that its output is that of a run that was never interrupted. A torn entry at the end is dropped.
+ */
+final class Journal implements Closeable {
+    private static final int MAGIC = 0x52574a4e;
+    private static final int VERSION = 1;
+
+    private record Entry(byte[] hash, @Nullable String diff) {
+    }
+
+    private final Map<Path, Entry> done;
+    private final DataOutputStream out;
+
+    private Journal(final Map<Path, Entry> done, final DataOutputStream out) {
+        this.done = done;
+        this.out = out;
+    }
+
+    /**
+     * Opens the journal at {@code file}, starting a new one if there is none or the one there is from a run with
+     * different options.
+     */
+    static Journal open(final Path file, final RunnerOptions options, final PrintStream err) throws IOException {
+        final byte[] settings = settings(options);
+        final Map<Path, Entry> done = new HashMap<>();
+        long valid = 0;
+        if (Files.exists(file) && Files.size(file) > 0) {
+            try (CountingInput counting = new CountingInput(Files.newInputStream(file));
+                 DataInputStream in = new DataInputStream(counting)) {
+                if (in.readInt() == MAGIC && in.readInt() == VERSION && Arrays.equals(readBytes(in), settings)) {
+                    valid = readEntries(in, counting, Files.size(file), done);
+                } else {
+                    err.printf("Journal %s is from a run with other options, starting over%n", file);
+                }
+            } catch (EOFException e) {
+                // The run was killed while writing the header.
+            }
+        }
+
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        final FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        channel.truncate(valid);
+        channel.position(valid);
+        final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+        if (valid == 0) {
+            done.clear();
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            writeBytes(out, settings);
+            out.flush();
+        }
+        return new Journal(done, out);
+    }
+
+    /**
+     * @return the files of {@code files} that still need to be run on. Diffs recorded for the others are printed
+     * to {@code out} on a dry run.
+     */
+    List<Path> remaining(final List<Path> files, final RunnerOptions options, final PrintStream out)
+            throws IOException {
+        final List<Path> remaining = new ArrayList<>(files.size());
+        for (Path file : files) {
+            final Entry entry = done.get(key(file));
+            if (entry == null || !Files.exists(file) || !Arrays.equals(entry.hash(), hash(file))) {
+                remaining.add(file);
+            } else if (options.isDryRun() && entry.diff() != null) {
+                Patches.print(out, options.getFormat(),
+                        Paths.get("").toAbsolutePath().normalize().relativize(key(file)).toString(), entry.diff());
+            }
+        }
+        return remaining;
+    }
+
+    /**
+     * Records that the run is done with {@code files}, with the diffs printed for those of them that changed by
+     * their {@link #key(Path)}.
+     */
+    void record(final List<Path> files, final Map<Path, String> diffs) throws IOException {
+        final List<byte[]> hashes = new ArrayList<>(files.size());
+        for (Path file : files) {
+            hashes.add(hash(file));
+        }
+
+        synchronized (out) {
+            out.writeInt(files.size());
+            for (int i = 0; i < files.size(); i++) {
+                final Path file = key(files.get(i));
+                writeBytes(out, file.toString().getBytes(StandardCharsets.UTF_8));
+                writeBytes(out, hashes.get(i));
+                final String diff = diffs.get(file);
+                writeBytes(out, diff == null ? new byte[0] : diff.getBytes(StandardCharsets.UTF_8));
+            }
+            out.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    /**
+     * @return the length of the journal up to the end of its last whole entry.
+     */
+    private static long readEntries(final DataInputStream in, final CountingInput counting, final long size,
+                                    final Map<Path, Entry> done) throws IOException {
+        long valid = counting.count;
+        try {
+            while (counting.count < size) {
+                done.putAll(readEntry(in));
+                valid = counting.count;
+            }
+        } catch (EOFException e) {
+            // The run was killed while appending this entry.
+        }
+        return valid;
+    }
+
+    private static Map<Path, Entry> readEntry(final DataInputStream in) throws IOException {
+        final Map<Path, Entry> entry = new HashMap<>();
+        final int files = in.readInt();
+        for (int i = 0; i < files; i++) {
+            final Path file = Paths.get(new String(readBytes(in), StandardCharsets.UTF_8));
+            final byte[] hash = readBytes(in);
+            final byte[] diff = readBytes(in);
+            entry.put(file, new Entry(hash, diff.length == 0 ? null : new String(diff, StandardCharsets.UTF_8)));
+        }
+        return entry;
+    }
+
+    static Path key(final Path file) {
+        return file.toAbsolutePath().normalize();
+    }
+
+    /**
+     * A journal only carries over to a run whose diffs it would have printed itself. Besides the output, that takes
+     * the same attribution, which depends on the classpath, the type tables and which files are parsed together, and
+     * the same screening of files that are never parsed.
+     */
+    private static byte[] settings(final RunnerOptions options) {
+        final MessageDigest digest = sha256();
+        digest.update((byte) (options.isDryRun() ? 1 : 0));
+        digest.update(options.getFormat().name().getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) (options.isNameBased() ? 1 : 0));
+        digest.update((byte) (options.isExplain() ? 2 : options.isSearch() ? 1 : 0));
+        digest.update((byte) (options.isSupertypeSources() ? 1 : 0));
+        digest.update((byte) (options.isScreen() ? 1 : 0));
+        digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(options.getBatchSize()).array());
+        digest.update((byte) (options.getTypeCache() != null ? 1 : 0));
+        for (List<Path> paths : List.of(options.getClasspath(), options.getClassDirectories(),
+                options.getCandidateLists())) {
+            for (Path entry : paths) {
+                digest.update(key(entry).toString().getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            digest.update((byte) 1);
+        }
+        return digest.digest();
+    }
+
+    private static byte[] hash(final Path file) throws IOException {
+        return sha256().digest(Files.readAllBytes(file));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void writeBytes(final DataOutputStream out, final byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(final DataInputStream in) throws IOException {
+        final byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    private static final class CountingInput extends BufferedInputStream {
+        long count;
+
+        CountingInput(final InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public synchronized int read() throws IOException {
+            final int b = super.read();
+            if (b != -1) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public synchronized int read(final byte[] b, final int off, final int len) throws IOException {
+            final int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+    }
+}
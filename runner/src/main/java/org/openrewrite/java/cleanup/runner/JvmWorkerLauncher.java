@@ -0,0 +1,80 @@
+package org.openrewrite.java.cleanup.runner;
+
+import org.openrewrite.internal.lang.Nullable;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Launches workers with a java executable and classpath, by default those of this JVM. A command prefix such as
+ * {@code ssh build-host-2} runs the worker on another host: the command line is then quoted into a single shell
+ * command, and wrapped so that the remote JVM is killed when the prefix command ends, as ssh does when the
+ * coordinator kills it. The shard and result files, the sources and every path the options name must be at the
+ * same paths on that host, e.g. on a shared file system.
+ */
+public class JvmWorkerLauncher implements WorkerLauncher {
+    private final List<String> commandPrefix;
+    private final List<String> jvmOptions;
+    private final String java;
+    private final String classpath;
+
+    public JvmWorkerLauncher(final List<String> commandPrefix, final List<String> jvmOptions) {
+        this(commandPrefix, jvmOptions, null, null);
+    }
+
+    /**
+     * @param java      the java executable on the host the prefix runs on, or null for the one of this JVM.
+     * @param classpath the classpath of the runner on that host, or null for the one of this JVM.
+     */
+    public JvmWorkerLauncher(final List<String> commandPrefix, final List<String> jvmOptions,
+                             @Nullable final String java, @Nullable final String classpath) {
+        this.commandPrefix = commandPrefix;
+        this.jvmOptions = jvmOptions;
+        this.java = java != null ? java : Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        this.classpath = classpath != null ? classpath : System.getProperty("java.class.path");
+    }
+
+    @Override
+    public Process launch(final List<String> workerArgs) throws IOException {
+        // The input stays an open pipe: it is what tells a remote worker that the coordinator is gone.
+        return new ProcessBuilder(command(workerArgs))
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+    }
+
+    List<String> command(final List<String> workerArgs) {
+        final List<String> jvm = new ArrayList<>();
+        jvm.add(java);
+        jvm.addAll(jvmOptions);
+        jvm.add("-cp");
+        jvm.add(classpath);
+        jvm.add(Main.class.getName());
+        jvm.addAll(workerArgs);
+        if (commandPrefix.isEmpty()) {
+            return jvm;
+        }
+
+        final List<String> quoted = new ArrayList<>(jvm.size());
+        for (String arg : jvm) {
+            quoted.add(quote(arg));
+        }
+        // The JVM reads nothing, so a watcher takes over the input and kills the JVM once it ends; a shell builtin
+        // reads it, so that killing the watcher leaves no process behind.
+        final String remote = "exec 3<&0; " + String.join(" ", quoted) + " </dev/null & jvm=$!; " +
+                              "(while read -r _; do :; done <&3; kill -9 $jvm) >/dev/null 2>&1 & watcher=$!; " +
+                              "exec 3<&-; wait $jvm; status=$?; kill $watcher 2>/dev/null; exit $status";
+        final List<String> command = new ArrayList<>(commandPrefix);
+        command.add(remote);
+        return command;
+    }
+
+    /**
+     * @return {@code arg} as a single word of a POSIX shell command.
+     */
+    static String quote(final String arg) {
+        return "'" + arg.replace("'", "'\\''") + "'";
+    }
+}
@@ -0,0 +1,71 @@
+package org.openrewrite.java.cleanup.runner;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class Main {
+    private static final int EXIT_FAILURE = 1;
+    private static final int EXIT_USAGE = 2;
+
+    public static void main(final String[] args) throws Exception {
+        final RunnerOptions options;
+        try {
+            options = RunnerOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(RunnerOptions.usage());
+            System.exit(EXIT_USAGE);
+            return;
+        }
+
+        if (options.getClient() != null) {
+            System.exit(DaemonClient.send(options.getSocket(), options.getClient(), Paths.get(""),
+                    options.getFiles(), System.out, System.err));
+            return;
+        } else if (options.isDaemon()) {
+            new Daemon(options, options.getSocket(), System.err).serve();
+            return;
+        } else if (options.isWatch()) {
+            try (SourceWatcher watcher = new SourceWatcher(options, System.out, System.err)) {
+                watcher.watch();
+            }
+            return;
+        } else if (options.getWorkerShard() != null && options.getWorkerResult() != null) {
+            final Shard shard = Shard.read(options.getWorkerShard());
+            try (ShardResult result = new ShardResult(options.getWorkerResult())) {
+                result.finish(new ParallelRecipeRunner(options, result, System.err).run(shard));
+            }
+            return;
+        }
+
+        final RunStats stats;
+        if (options.getWorkers() > 0) {
+            stats = new ShardCoordinator(options, launchers(options), System.out, System.err).run();
+        } else {
+            stats = new ParallelRecipeRunner(options, System.out, System.err).run();
+        }
+
+        stats.print(System.err);
+        if (stats.getShardsFailed() > 0) {
+            System.exit(EXIT_FAILURE);
+        }
+    }
+
+    private static List<WorkerLauncher> launchers(final RunnerOptions options) {
+        final List<String> jvmOptions = options.getWorkerHeap() == null ? Collections.emptyList() :
+                Collections.singletonList("-Xmx" + options.getWorkerHeap());
+
+        final List<WorkerLauncher> launchers = new ArrayList<>();
+        if (options.getWorkerPrefixes().isEmpty()) {
+            launchers.add(new JvmWorkerLauncher(Collections.emptyList(), jvmOptions, options.getWorkerJava(),
+                    options.getWorkerClasspath()));
+        }
+        for (List<String> prefix : options.getWorkerPrefixes()) {
+            launchers.add(new JvmWorkerLauncher(prefix, jvmOptions, options.getWorkerJava(),
+                    options.getWorkerClasspath()));
+        }
+        return launchers;
+    }
+}
@@ -0,0 +1,276 @@
+package org.openrewrite.java.cleanup.runner;
+
+import org.openrewrite.Parser;
+import org.openrewrite.Result;
+import org.openrewrite.SourceFile;
+import org.openrewrite.internal.lang.Nullable;
+import org.openrewrite.java.JavaParser;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Runs the recipe as a pipeline of discovery, read, parse, analyze and write stages. Only the batches queued
+ * between stages are alive at any time, instead of every tree of the source roots. With
+ * {@link RunnerOptions#isSupertypeSources()}, a batch is parsed together with the sources of the supertypes its
+ * classes extend, found in a lexical index of the source roots, and their trees are dropped before the recipe runs.
+ * That gives the recipe the members of supertypes in other batches while the heap only ever holds the index and
+ * the batches in flight.
+ */
+public class ParallelRecipeRunner {
+    private final RunnerOptions options;
+    private final ResultWriter writer;
+    @Nullable
+    private final PrintStream out;
+    private final PrintStream err;
+    private final AnalysisEngine engine;
+    private final ThreadLocal<JavaParser> parsers;
+
+    /**
+     * @param files all files of the batch, including those that did not change.
+     */
+    private record Batch<T>(int lane, Path root, List<Path> files, List<T> items) {
+    }
+
+    public ParallelRecipeRunner(final RunnerOptions options, final PrintStream out, final PrintStream err) {
+        this(options, options.isDryRun() ? ResultWriter.dryRun(options, out) :
+                ResultWriter.inPlace(options.isFsync()), out, err);
+    }
+
+    /**
+     * A runner that hands its changes to {@code writer}. It keeps no journal, as it does not print the changes itself.
+     */
+    public ParallelRecipeRunner(final RunnerOptions options, final ResultWriter writer, final PrintStream err) {
+        this(options, writer, null, err);
+    }
+
+    private ParallelRecipeRunner(final RunnerOptions options, final ResultWriter writer,
+                                 @Nullable final PrintStream out, final PrintStream err) {
+        this.options = options;
+        this.writer = writer;
+        this.out = out;
+        this.err = err;
+        this.engine = new AnalysisEngine(options, err);
+        this.parsers = ThreadLocal.withInitial(engine::newParser);
+    }
+
+    /**
+     * Runs the recipe on every Java source below the source roots of the options.
+     */
+    public RunStats run() throws IOException, InterruptedException {
+        final Map<Path, List<Path>> sources = new LinkedHashMap<>();
+        for (Path root : options.getSourceRoots()) {
+            sources.put(root, ShardPlanner.javaFiles(root));
+        }
+
+        if (options.getJournal() == null || out == null) {
+            return run(sources, null);
+        }
+        try (Journal journal = Journal.open(options.getJournal(), options, err)) {
+            long resumed = 0;
+            for (Map.Entry<Path, List<Path>> source : sources.entrySet()) {
+                final List<Path> remaining = journal.remaining(source.getValue(), options, out);
+                resumed += source.getValue().size() - remaining.size();
+                source.setValue(remaining);
+            }
+            final RunStats stats = run(sources, journal);
+            stats.resumed(resumed);
+            return stats;
+        }
+    }
+
+    /**
+     * Runs the recipe on the files of a single shard only.
+     */
+    public RunStats run(final Shard shard) throws IOException, InterruptedException {
+        return run(Collections.singletonMap(shard.root(), shard.files()), null);
+    }
+
+    private RunStats run(final Map<Path, List<Path>> sources, @Nullable final Journal journal)
+            throws IOException, InterruptedException {
+        final RunStats stats = new RunStats();
+        final int threads = options.getThreads();
+        final TypeIndex index = options.isSupertypeSources() ? index(sources.keySet()) : null;
+        final Predicate<Path> ruledOut = ruledOut();
+        final WorkScheduler.Schedule schedule = WorkScheduler.schedule(sources, threads, options.getBatchSize());
+
+        try (Pipeline pipeline = new Pipeline(2 * threads)) {
+            final Channel<Batch<Path>> discovered = pipeline.source("discover", next -> {
+                for (WorkScheduler.Unit unit : schedule.units()) {
+                    stats.discovered(unit.files().size());
+                    next.put(new Batch<>(unit.lane(), unit.root(), unit.files(), withSupertypeSources(index, unit)));
+                }
+            });
+            // Each parse worker owns a lane of the read batches, so a module stays with one parser.
+            final Channel<Batch<Parser.Input>> read = pipeline.io("read", discovered, options.getIoThreads(),
+                    pipeline.lanes(threads, Batch::lane, schedule.unitsPerLane()),
+                    (batch, next) -> next.put(read(batch, stats)));
+            final Channel<Batch<SourceFile>> parsed = pipeline.cpu("parse", read, threads,
+                    (batch, next) -> next.put(parse(batch, ruledOut, stats)));
+            final Channel<Batch<Result>> analyzed = pipeline.cpu("analyze", parsed, threads,
+                    (batch, next) -> {
+                        final Batch<Result> results = analyze(batch, stats);
+                        if (!results.items().isEmpty() || journal != null) {
+                            next.put(results);
+                        }
+                    });
+            pipeline.sink("write", analyzed, options.getWriteThreads(), batch -> write(batch, journal, stats));
+            pipeline.await();
+        }
+
+        stats.finish();
+        return stats;
+    }
+
+    /**
+     * @return the files that the class directories and candidate lists of the options show to have no candidate.
+     * Those that cannot be read are left out.
+     */
+    private Predicate<Path> ruledOut() {
+        Predicate<Path> ruledOut = file -> false;
+        if (!options.isScreen()) {
+            return ruledOut;
+        }
+        if (!options.getClassDirectories().isEmpty()) {
+            try {
+                final BytecodeScreen bytecode = BytecodeScreen.load(options.getClassDirectories());
+                ruledOut = ruledOut.or(file -> Boolean.FALSE.equals(bytecode.candidate(file)));
+            } catch (IOException | RuntimeException e) {
+                err.println("Not using the class directories " + options.getClassDirectories() + ": " +
+                        e.getMessage());
+            }
+        }
+        if (!options.getCandidateLists().isEmpty()) {
+            try {
+                final Set<Path> listed = StaticCandidatesPlugin.listedSources(options.getCandidateLists());
+                ruledOut = ruledOut.or(file -> !listed.contains(file.toAbsolutePath().normalize()));
+            } catch (IOException e) {
+                err.println("Not using the candidate lists " + options.getCandidateLists() + ": " + e.getMessage());
+            }
+        }
+        return ruledOut;
+    }
+
+    private static TypeIndex index(final Set<Path> roots) throws IOException {
+        final TypeIndex index = new TypeIndex();
+        for (Path root : roots) {
+            for (Path file : ShardPlanner.javaFiles(root)) {
+                index.update(file);
+            }
+        }
+        return index;
+    }
+
+    private static List<Path> withSupertypeSources(@Nullable final TypeIndex index, final WorkScheduler.Unit unit) {
+        if (index == null) {
+            return unit.files();
+        }
+        final List<Path> files = new ArrayList<>(unit.files());
+        files.addAll(index.supertypeSources(new HashSet<>(unit.files())));
+        return files;
+    }
+
+    /**
+     * A file that cannot be read fails on its own; the rest of its batch is still parsed. From here on, the files of
+     * a batch are those that still have a result to come, which are the only ones the journal records as done.
+     */
+    private Batch<Parser.Input> read(final Batch<Path> batch, final RunStats stats) {
+        final List<Parser.Input> inputs = new ArrayList<>(batch.items().size());
+        final List<Path> files = new ArrayList<>(batch.files());
+        for (Path file : batch.items()) {
+            try {
+                inputs.addAll(AnalysisEngine.read(Collections.singletonList(file)));
+            } catch (IOException e) {
+                err.println("Failed to read " + file + ": " + e.getMessage());
+                if (files.remove(file)) {
+                    stats.parseFailed(1);
+                }
+            }
+        }
+        return new Batch<>(batch.lane(), batch.root(), files, inputs);
+    }
+
+    private Batch<SourceFile> parse(final Batch<Parser.Input> batch, final Predicate<Path> ruledOut,
+                                    final RunStats stats) throws IOException {
+        final Set<Path> files = new HashSet<>(batch.files());
+        List<Parser.Input> inputs = batch.items();
+        if (options.isScreen()) {
+            inputs = CandidateScreen.screen(batch.root(), inputs, files, ruledOut, engine.newExecutionContext());
+            final Set<Parser.Input> kept = Collections.newSetFromMap(new IdentityHashMap<>());
+            kept.addAll(inputs);
+            for (Parser.Input input : batch.items()) {
+                if (!kept.contains(input) &&
+                    files.contains(batch.root().resolve(input.getRelativePath(batch.root())))) {
+                    stats.screenedOut(1);
+                }
+            }
+        }
+
+        final List<SourceFile> sourceFiles = engine.parse(parsers.get(), batch.root(), inputs, stats);
+        if (options.isSupertypeSources()) {
+            // Supertypes parsed for their attribution only are not run on.
+            sourceFiles.removeIf(sourceFile -> !files.contains(batch.root().resolve(sourceFile.getSourcePath())));
+        }
+
+        // Files the screen left out are done without a change; those the parser dropped failed.
+        final Set<Path> unparsed = new HashSet<>();
+        for (Parser.Input input : inputs) {
+            unparsed.add(batch.root().resolve(input.getRelativePath(batch.root())));
+        }
+        for (SourceFile sourceFile : sourceFiles) {
+            unparsed.remove(batch.root().resolve(sourceFile.getSourcePath()));
+        }
+        return new Batch<>(batch.lane(), batch.root(), without(batch.files(), unparsed), sourceFiles);
+    }
+
+    private Batch<Result> analyze(final Batch<SourceFile> batch, final RunStats stats) {
+        final Set<Path> failed = new HashSet<>();
+        final List<Result> results = engine.analyze(batch.items(), stats, failed);
+        final Set<Path> failedFiles = new HashSet<>();
+        for (Path sourcePath : failed) {
+            failedFiles.add(batch.root().resolve(sourcePath));
+        }
+        return new Batch<>(batch.lane(), batch.root(), without(batch.files(), failedFiles), results);
+    }
+
+    private static List<Path> without(final List<Path> files, final Set<Path> failed) {
+        if (failed.isEmpty()) {
+            return files;
+        }
+        final List<Path> remaining = new ArrayList<>(files);
+        remaining.removeAll(failed);
+        return remaining;
+    }
+
+    private void write(final Batch<Result> batch, @Nullable final Journal journal, final RunStats stats)
+            throws IOException {
+        final long start = System.nanoTime();
+        writer.write(batch.root(), batch.items());
+        if (journal != null) {
+            final Map<Path, String> diffs = new HashMap<>();
+            if (options.isDryRun()) {
+                for (Result result : batch.items()) {
+                    final SourceFile after = result.getAfter();
+                    if (after != null) {
+                        diffs.put(Journal.key(batch.root().resolve(after.getSourcePath())),
+                                Patches.patch(Paths.get(""), batch.root(), result));
+                    }
+                }
+            }
+            journal.record(batch.files(), diffs);
+        }
+        stats.written(System.nanoTime() - start);
+    }
+}
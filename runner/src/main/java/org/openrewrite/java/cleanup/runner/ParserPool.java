@@ -0,0 +1,48 @@
+package org.openrewrite.java.cleanup.runner;
+
+import org.openrewrite.Parser;
+import org.openrewrite.SourceFile;
+import org.openrewrite.java.JavaParser;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Parsers that outlive a single run, for the long-lived modes. Each one parsed and analyzed a small source before
+ * it is handed out, so that the first real request does not pay for class loading and JIT warm-up.
+ */
+final class ParserPool {
+    private static final String WARM_UP_SOURCE = "class WarmUp {\n" +
+            "    private int value;\n" +
+            "    private int get() {\n" +
+            "        return value;\n" +
+            "    }\n" +
+            "}\n";
+
+    private final BlockingQueue<JavaParser> parsers;
+
+    ParserPool(final AnalysisEngine engine, final int size) throws InterruptedException {
+        this.parsers = new ArrayBlockingQueue<>(size);
+        for (int i = 0; i < size; i++) {
+            final JavaParser parser = engine.newParser();
+            final List<SourceFile> cus = engine.parse(parser, Paths.get(""),
+                    List.of(new Parser.Input(Paths.get("WarmUp.java"), () ->
+                            new ByteArrayInputStream(WARM_UP_SOURCE.getBytes(StandardCharsets.UTF_8)))),
+                    new RunStats());
+            engine.analyze(cus, new RunStats());
+            parsers.put(parser);
+        }
+    }
+
+    JavaParser take() throws InterruptedException {
+        return parsers.take();
+    }
+
+    void release(final JavaParser parser) throws InterruptedException {
+        parsers.put(parser);
+    }
+}
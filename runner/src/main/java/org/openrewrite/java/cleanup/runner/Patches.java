@@ -0,0 +1,61 @@
+package org.openrewrite.java.cleanup.runner;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.openrewrite.Result;
+import org.openrewrite.SourceFile;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringWriter;
+import java.nio.file.Path;
+
+/**
+ * Renders changed files as patches and JSON lines. Paths are made relative to the directory the output is meant to
+ * be applied in, since the source paths of the trees are relative to a source root that {@code git apply} knows
+ * nothing about.
+ */
+final class Patches {
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private Patches() {
+    }
+
+    /**
+     * @return the diff of a result with its paths relative to {@code base} rather than to the source root.
+     */
+    static String patch(final Path base, final Path root, final Result result) {
+        final SourceFile before = result.getBefore();
+        final SourceFile after = result.getAfter();
+        return new Result(
+                before == null ? null : before.withSourcePath(relativize(base, root, before.getSourcePath())),
+                after == null ? null : after.withSourcePath(relativize(base, root, after.getSourcePath())),
+                result.getRecipes()).diff();
+    }
+
+    static Path relativize(final Path base, final Path root, final Path sourcePath) {
+        return base.toAbsolutePath().normalize().relativize(root.toAbsolutePath().resolve(sourcePath).normalize());
+    }
+
+    /**
+     * Prints the diff of a file in the given format, as a dry run does.
+     */
+    static void print(final PrintStream out, final RunnerOptions.Format format, final String path,
+                      final String diff) throws IOException {
+        final String text = format == RunnerOptions.Format.JSONL ? jsonLine(path, diff) + System.lineSeparator() : diff;
+        synchronized (out) {
+            out.print(text);
+        }
+    }
+
+    static String jsonLine(final String path, final String diff) throws IOException {
+        final StringWriter line = new StringWriter();
+        try (JsonGenerator json = JSON.createGenerator(line)) {
+            json.writeStartObject();
+            json.writeStringField("path", path);
+            json.writeStringField("diff", diff);
+            json.writeEndObject();
+        }
+        return line.toString();
+    }
+}
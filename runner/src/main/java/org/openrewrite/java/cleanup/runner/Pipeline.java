@@ -0,0 +1,152 @@
+package org.openrewrite.java.cleanup.runner;
+
+import org.openrewrite.internal.lang.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.ToIntFunction;
+
+/**
+ * Stages connected by bounded {@link Channel}s. Every worker of a stage loops until its input channel ends, so
+ * each stage gets its own executor: CPU stages a fixed pool sized to their worker count, I/O stages virtual threads.
+ */
+final class Pipeline implements AutoCloseable {
+    private final int capacity;
+    private final List<ExecutorService> executors = new CopyOnWriteArrayList<>();
+    private final List<Future<?>> workers = new ArrayList<>();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    interface Source<O> {
+        void produce(Channel<O> out) throws Exception;
+    }
+
+    interface Step<I, O> {
+        void process(I item, Channel<O> out) throws Exception;
+    }
+
+    interface Sink<I> {
+        void accept(I item) throws Exception;
+    }
+
+    Pipeline(final int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * @return a channel with the capacity of this pipeline that is split into lanes, see {@link Channel}.
+     */
+    <T> Channel<T> lanes(final int laneCount, final ToIntFunction<? super T> laneOf, final int[] scheduled) {
+        return new Channel<>(capacity, laneCount, laneOf, scheduled);
+    }
+
+    <O> Channel<O> source(final String name, final Source<O> source) {
+        return source(name, new Channel<>(capacity), source);
+    }
+
+    <O> Channel<O> source(final String name, final Channel<O> out, final Source<O> source) {
+        out.open();
+        final ExecutorService executor = executor(Threads.io(name));
+        workers.add(executor.submit(() -> {
+            try {
+                source.produce(out);
+            } catch (Throwable t) {
+                fail(t);
+            } finally {
+                out.close();
+            }
+        }));
+        return out;
+    }
+
+    <I, O> Channel<O> io(final String name, final Channel<I> in, final int workers, final Step<I, O> step) {
+        return io(name, in, workers, new Channel<>(capacity), step);
+    }
+
+    <I, O> Channel<O> io(final String name, final Channel<I> in, final int workers, final Channel<O> out,
+                         final Step<I, O> step) {
+        return stage(executor(Threads.io(name)), in, workers, out, step);
+    }
+
+    <I, O> Channel<O> cpu(final String name, final Channel<I> in, final int workers, final Step<I, O> step) {
+        return stage(executor(Threads.cpu(name, workers)), in, workers, new Channel<>(capacity), step);
+    }
+
+    <I> void sink(final String name, final Channel<I> in, final int workers, final Sink<I> sink) {
+        start(executor(Threads.io(name)), in, workers, null, (item, out) -> sink.accept(item));
+    }
+
+    private <I, O> Channel<O> stage(final ExecutorService executor, final Channel<I> in, final int workers,
+                                    final Channel<O> out, final Step<I, O> step) {
+        for (int i = 0; i < workers; i++) {
+            out.open();
+        }
+        start(executor, in, workers, out, step);
+        return out;
+    }
+
+    private <I, O> void start(final ExecutorService executor, final Channel<I> in, final int count,
+                              @Nullable final Channel<O> out, final Step<I, O> step) {
+        for (int i = 0; i < count; i++) {
+            final int worker = i;
+            workers.add(executor.submit(() -> {
+                try {
+                    for (I item = in.take(worker); item != null; item = in.take(worker)) {
+                        step.process(item, out);
+                    }
+                } catch (Throwable t) {
+                    fail(t);
+                } finally {
+                    if (out != null) {
+                        out.close();
+                    }
+                }
+            }));
+        }
+    }
+
+    /**
+     * Waits for every stage to drain and rethrows the first failure of any stage.
+     */
+    void await() throws InterruptedException {
+        for (Future<?> worker : workers) {
+            try {
+                worker.get();
+            } catch (ExecutionException e) {
+                fail(e.getCause());
+            }
+        }
+
+        final Throwable t = failure.get();
+        if (t instanceof RuntimeException) {
+            throw (RuntimeException) t;
+        } else if (t instanceof Error) {
+            throw (Error) t;
+        } else if (t != null) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    @Override
+    public void close() {
+        for (ExecutorService executor : executors) {
+            executor.shutdownNow();
+        }
+    }
+
+    private ExecutorService executor(final ExecutorService executor) {
+        executors.add(executor);
+        return executor;
+    }
+
+    private void fail(final Throwable t) {
+        // Interrupting every stage unblocks workers waiting on full or empty channels.
+        if (failure.compareAndSet(null, t)) {
+            close();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package org.openrewrite.java.cleanup.runner;
+
+import org.openrewrite.Result;
+import org.openrewrite.SourceFile;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * Receives every changed file of a run from the write stage, possibly from several threads at once. Writers print or
+ * write each result as soon as they receive it and keep nothing, so that its trees can be collected straight away.
+ */
+public interface ResultWriter {
+
+    void write(Path root, Result result) throws IOException;
+
+    /**
+     * Receives the changed files of one batch together, all below the same source root.
+     */
+    default void write(final Path root, final List<Result> results) throws IOException {
+        for (Result result : results) {
+            write(root, result);
+        }
+    }
+
+    static ResultWriter inPlace() {
+        return inPlace(false);
+    }
+
+    /**
+     * Replaces each changed source atomically, syncing it to disk first if {@code fsync} is set.
+     */
+    static ResultWriter inPlace(final boolean fsync) {
+        return new AtomicWriter(fsync);
+    }
+
+    /**
+     * @return the writer that prints changes in the format that {@code --format} asks for, with paths relative to the
+     * working directory.
+     */
+    static ResultWriter dryRun(final RunnerOptions options, final PrintStream out) {
+        final Path base = Paths.get("");
+        return options.getFormat() == RunnerOptions.Format.JSONL ? jsonLines(out, base) : diff(out, base);
+    }
+
+    /**
+     * Prints a patch that {@code git apply} takes when run in {@code base}.
+     */
+    static ResultWriter diff(final PrintStream out, final Path base) {
+        return (root, result) -> {
+            final String patch = Patches.patch(base, root, result);
+            synchronized (out) {
+                out.print(patch);
+            }
+        };
+    }
+
+    /**
+     * Prints one JSON object per changed file, holding its {@code path} relative to {@code base} and its
+     * {@code diff}.
+     */
+    static ResultWriter jsonLines(final PrintStream out, final Path base) {
+        return (root, result) -> {
+            final SourceFile after = result.getAfter();
+            if (after != null) {
+                final String line = Patches.jsonLine(Patches.relativize(base, root, after.getSourcePath()).toString(),
+                        Patches.patch(base, root, result));
+                synchronized (out) {
+                    out.println(line);
+                }
+            }
+        };
+    }
+}
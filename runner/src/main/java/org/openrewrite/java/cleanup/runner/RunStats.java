@@ -0,0 +1,249 @@
+package org.openrewrite.java.cleanup.runner;
+
+import org.HdrHistogram.AbstractHistogram;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.openrewrite.java.cleanup.RecipeLatencies;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.DataFormatException;
+
+public class RunStats {
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final LongAdder filesDiscovered = new LongAdder();
+    private final LongAdder filesParsed = new LongAdder();
+    private final LongAdder filesFromCache = new LongAdder();
+    private final LongAdder filesResumed = new LongAdder();
+    private final LongAdder filesScreenedOut = new LongAdder();
+    private final LongAdder filesChanged = new LongAdder();
+    private final LongAdder parseErrors = new LongAdder();
+    private final LongAdder parseNanos = new LongAdder();
+    private final LongAdder recipeNanos = new LongAdder();
+    private final LongAdder writeNanos = new LongAdder();
+    private final LongAdder shardsFailed = new LongAdder();
+    // Recorded into by every worker thread at once; they resize themselves to the slowest file and method.
+    private final ConcurrentHistogram fileNanos = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+    private final ConcurrentHistogram methodNanos = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+    private final long startNanos = System.nanoTime();
+    private volatile long endNanos;
+
+    void discovered(final long files) {
+        filesDiscovered.add(files);
+    }
+
+    void parsed(final long files, final long nanos) {
+        filesParsed.add(files);
+        parseNanos.add(nanos);
+    }
+
+    void loadedFromCache(final long files, final long nanos) {
+        filesFromCache.add(files);
+        parseNanos.add(nanos);
+    }
+
+    void resumed(final long files) {
+        filesResumed.add(files);
+    }
+
+    void screenedOut(final long files) {
+        filesScreenedOut.add(files);
+    }
+
+    void parseFailed(final long files) {
+        parseErrors.add(files);
+    }
+
+    void analyzed(final long changedFiles, final long nanos) {
+        filesChanged.add(changedFiles);
+        recipeNanos.add(nanos);
+    }
+
+    void written(final long nanos) {
+        writeNanos.add(nanos);
+    }
+
+    void shardFailed() {
+        shardsFailed.increment();
+    }
+
+    /**
+     * @return what the recipe records the time of each file and candidate method into, logging the files that take
+     * {@code slowFileNanos} or longer.
+     */
+    RecipeLatencies latencies(final long slowFileNanos) {
+        return new RecipeLatencies() {
+            @Override
+            public long getSlowFileNanos() {
+                return slowFileNanos;
+            }
+
+            @Override
+            public void recordFile(final long nanos) {
+                fileNanos.recordValue(nanos);
+            }
+
+            @Override
+            public void recordMethod(final long nanos) {
+                methodNanos.recordValue(nanos);
+            }
+        };
+    }
+
+    /**
+     * Counters of a worker JVM travel to the coordinator in the shard result file.
+     */
+    void writeTo(final DataOutput out) throws IOException {
+        for (LongAdder counter : counters()) {
+            out.writeLong(counter.sum());
+        }
+        for (AbstractHistogram histogram : histograms()) {
+            final ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+            final int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+            out.writeInt(length);
+            out.write(buffer.array(), 0, length);
+        }
+    }
+
+    void mergeFrom(final DataInput in) throws IOException {
+        for (LongAdder counter : counters()) {
+            counter.add(in.readLong());
+        }
+        for (AbstractHistogram histogram : histograms()) {
+            final byte[] encoded = new byte[in.readInt()];
+            in.readFully(encoded);
+            try {
+                histogram.add(Histogram.decodeFromCompressedByteBuffer(ByteBuffer.wrap(encoded), 0));
+            } catch (DataFormatException e) {
+                throw new IOException("Corrupt latency histogram", e);
+            }
+        }
+    }
+
+    void merge(final RunStats other) {
+        final LongAdder[] mine = counters();
+        final LongAdder[] theirs = other.counters();
+        for (int i = 0; i < mine.length; i++) {
+            mine[i].add(theirs[i].sum());
+        }
+        fileNanos.add(other.fileNanos);
+        methodNanos.add(other.methodNanos);
+    }
+
+    private AbstractHistogram[] histograms() {
+        return new AbstractHistogram[]{fileNanos, methodNanos};
+    }
+
+    private LongAdder[] counters() {
+        return new LongAdder[]{filesDiscovered, filesParsed, filesFromCache, filesResumed, filesScreenedOut,
+                filesChanged, parseErrors, parseNanos, recipeNanos, writeNanos};
+    }
+
+    void finish() {
+        endNanos = System.nanoTime();
+    }
+
+    public long getFilesDiscovered() {
+        return filesDiscovered.sum();
+    }
+
+    public long getFilesParsed() {
+        return filesParsed.sum();
+    }
+
+    public long getFilesFromCache() {
+        return filesFromCache.sum();
+    }
+
+    /**
+     * @return the files that an earlier, interrupted run was already done with.
+     */
+    public long getFilesResumed() {
+        return filesResumed.sum();
+    }
+
+    /**
+     * @return the files that were not parsed, as their tokens showed they have no method the recipe could change.
+     */
+    public long getFilesScreenedOut() {
+        return filesScreenedOut.sum();
+    }
+
+    public long getFilesChanged() {
+        return filesChanged.sum();
+    }
+
+    public long getParseErrors() {
+        return parseErrors.sum();
+    }
+
+    public long getShardsFailed() {
+        return shardsFailed.sum();
+    }
+
+    public long getWallMillis() {
+        return TimeUnit.NANOSECONDS.toMillis((endNanos == 0 ? System.nanoTime() : endNanos) - startNanos);
+    }
+
+    /**
+     * @return the times the recipe took on each visit of a file until it changed nothing more, in nanoseconds.
+     */
+    public AbstractHistogram getFileLatencies() {
+        return fileNanos;
+    }
+
+    /**
+     * @return the times the recipe took to analyze each candidate method, in nanoseconds.
+     */
+    public AbstractHistogram getMethodLatencies() {
+        return methodNanos;
+    }
+
+    public double getFilesPerSecond() {
+        final long wall = getWallMillis();
+        final long files = getFilesParsed() + getFilesFromCache();
+        return wall == 0 ? files : files * 1000.0 / wall;
+    }
+
+    public void print(final PrintStream out) {
+        out.printf("Files discovered: %d, parsed: %d, from cache: %d, changed: %d, parse errors: %d%n",
+                getFilesDiscovered(), getFilesParsed(), getFilesFromCache(), getFilesChanged(), getParseErrors());
+        // Phase times are summed across worker threads, so they can exceed the wall time.
+        out.printf("CPU time parse: %d ms, recipe: %d ms, write: %d ms%n",
+                TimeUnit.NANOSECONDS.toMillis(parseNanos.sum()),
+                TimeUnit.NANOSECONDS.toMillis(recipeNanos.sum()),
+                TimeUnit.NANOSECONDS.toMillis(writeNanos.sum()));
+        printLatencies(out, "file", fileNanos);
+        printLatencies(out, "method", methodNanos);
+        if (getFilesScreenedOut() > 0) {
+            out.printf("Files skipped without parsing: %d%n", getFilesScreenedOut());
+        }
+        if (getFilesResumed() > 0) {
+            out.printf("Files resumed from journal: %d%n", getFilesResumed());
+        }
+        if (getShardsFailed() > 0) {
+            out.printf("Shards failed: %d%n", getShardsFailed());
+        }
+        out.printf("Wall time: %d ms, throughput: %.1f files/s%n", getWallMillis(), getFilesPerSecond());
+    }
+
+    private static void printLatencies(final PrintStream out, final String what, final AbstractHistogram nanos) {
+        if (nanos.getTotalCount() == 0) {
+            return;
+        }
+        out.printf("Recipe latency per %s (%d): p50 %.3f ms, p90 %.3f ms, p99 %.3f ms, max %.3f ms%n", what,
+                nanos.getTotalCount(), millis(nanos.getValueAtPercentile(50)),
+                millis(nanos.getValueAtPercentile(90)), millis(nanos.getValueAtPercentile(99)),
+                millis(nanos.getMaxValue()));
+    }
+
+    private static double millis(final long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
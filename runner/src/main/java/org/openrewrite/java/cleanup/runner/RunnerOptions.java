@@ -0,0 +1,575 @@
+package org.openrewrite.java.cleanup.runner;
+
+import org.openrewrite.internal.lang.Nullable;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+public class RunnerOptions {
+    /**
+     * How a dry run prints the changes.
+     */
+    public enum Format {
+        DIFF, JSONL
+    }
+
+    private static final int DEFAULT_BATCH_SIZE = 64;
+    private static final int DEFAULT_IO_THREADS = 16;
+    private static final int DEFAULT_WRITE_THREADS = 4;
+    private static final int DEFAULT_SHARD_SIZE = 2000;
+    private static final int DEFAULT_MAX_ATTEMPTS = 3;
+    private static final int DEFAULT_WORKER_TIMEOUT_SECONDS = 3600;
+    private static final int DEFAULT_DEBOUNCE_MILLIS = 50;
+    private static final int DEFAULT_SLOW_FILE_MILLIS = 1000;
+    private static final List<String> CLIENT_COMMANDS = Arrays.asList(Daemon.ANALYZE, Daemon.APPLY, Daemon.PING,
+            Daemon.SHUTDOWN);
+
+    private final List<Path> paths = new ArrayList<>();
+    private final List<Path> classpath = new ArrayList<>();
+    private final List<Path> classDirectories = new ArrayList<>();
+    private final List<Path> candidateLists = new ArrayList<>();
+    private final List<List<String>> workerPrefixes = new ArrayList<>();
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private boolean threadsSet;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private int ioThreads = DEFAULT_IO_THREADS;
+    private int writeThreads = DEFAULT_WRITE_THREADS;
+    private boolean fsync;
+    private boolean dryRun;
+    private Format format = Format.DIFF;
+    private int workers;
+    private int shardSize = DEFAULT_SHARD_SIZE;
+    private int maxAttempts = DEFAULT_MAX_ATTEMPTS;
+    private int workerTimeoutSeconds = DEFAULT_WORKER_TIMEOUT_SECONDS;
+    @Nullable
+    private String workerHeap;
+    @Nullable
+    private String workerJava;
+    @Nullable
+    private String workerClasspath;
+    @Nullable
+    private Path workDir;
+    @Nullable
+    private Path workerShard;
+    @Nullable
+    private Path workerResult;
+    private boolean daemon;
+    @Nullable
+    private String client;
+    private Path socket = defaultSocket();
+    private boolean watch;
+    private int debounceMillis = DEFAULT_DEBOUNCE_MILLIS;
+    @Nullable
+    private Path typeCache = defaultTypeCache();
+    @Nullable
+    private Path treeCache;
+    @Nullable
+    private Path journal;
+    private boolean supertypeSources;
+    private boolean screen = true;
+    private boolean nameBased;
+    private boolean search;
+    private boolean explain;
+    private int slowFileMillis = DEFAULT_SLOW_FILE_MILLIS;
+
+    public static RunnerOptions parse(final String... args) {
+        final RunnerOptions options = new RunnerOptions();
+
+        for (int i = 0; i < args.length; i++) {
+            final String arg = args[i];
+
+            if (arg.equals("--threads")) {
+                options.threads = positive(arg, value(args, ++i, arg));
+                options.threadsSet = true;
+            } else if (arg.equals("--io-threads")) {
+                options.ioThreads = positive(arg, value(args, ++i, arg));
+            } else if (arg.equals("--write-threads")) {
+                options.writeThreads = positive(arg, value(args, ++i, arg));
+            } else if (arg.equals("--fsync")) {
+                options.fsync = true;
+            } else if (arg.equals("--batch-size")) {
+                options.batchSize = positive(arg, value(args, ++i, arg));
+            } else if (arg.equals("--classpath") || arg.equals("-cp")) {
+                for (String entry : value(args, ++i, arg).split(File.pathSeparator)) {
+                    if (!entry.isEmpty()) {
+                        options.classpath.add(Paths.get(entry));
+                    }
+                }
+            } else if (arg.equals("--classes")) {
+                for (String entry : value(args, ++i, arg).split(File.pathSeparator)) {
+                    if (!entry.isEmpty()) {
+                        options.classDirectories.add(Paths.get(entry));
+                    }
+                }
+            } else if (arg.equals("--candidates")) {
+                for (String entry : value(args, ++i, arg).split(File.pathSeparator)) {
+                    if (!entry.isEmpty()) {
+                        options.candidateLists.add(Paths.get(entry));
+                    }
+                }
+            } else if (arg.equals("--dry-run")) {
+                options.dryRun = true;
+            } else if (arg.equals("--format")) {
+                options.format = format(value(args, ++i, arg));
+            } else if (arg.equals("--workers")) {
+                options.workers = positive(arg, value(args, ++i, arg));
+            } else if (arg.equals("--shard-size")) {
+                options.shardSize = positive(arg, value(args, ++i, arg));
+            } else if (arg.equals("--max-attempts")) {
+                options.maxAttempts = positive(arg, value(args, ++i, arg));
+            } else if (arg.equals("--worker-timeout")) {
+                options.workerTimeoutSeconds = positive(arg, value(args, ++i, arg));
+            } else if (arg.equals("--worker-heap")) {
+                options.workerHeap = value(args, ++i, arg);
+            } else if (arg.equals("--worker-java")) {
+                options.workerJava = value(args, ++i, arg);
+            } else if (arg.equals("--worker-cp")) {
+                options.workerClasspath = value(args, ++i, arg);
+            } else if (arg.equals("--work-dir")) {
+                options.workDir = Paths.get(value(args, ++i, arg));
+            } else if (arg.equals("--worker-prefix")) {
+                options.workerPrefixes.add(Arrays.asList(value(args, ++i, arg).trim().split("\\s+")));
+            } else if (arg.equals("--worker-shard")) {
+                options.workerShard = Paths.get(value(args, ++i, arg));
+            } else if (arg.equals("--worker-result")) {
+                options.workerResult = Paths.get(value(args, ++i, arg));
+            } else if (arg.equals("--daemon")) {
+                options.daemon = true;
+            } else if (arg.equals("--client")) {
+                options.client = value(args, ++i, arg);
+            } else if (arg.equals("--socket")) {
+                options.socket = Paths.get(value(args, ++i, arg));
+            } else if (arg.equals("--watch")) {
+                options.watch = true;
+            } else if (arg.equals("--debounce")) {
+                options.debounceMillis = positive(arg, value(args, ++i, arg));
+            } else if (arg.equals("--type-cache")) {
+                options.typeCache = Paths.get(value(args, ++i, arg));
+            } else if (arg.equals("--no-type-cache")) {
+                options.typeCache = null;
+            } else if (arg.equals("--tree-cache")) {
+                options.treeCache = Paths.get(value(args, ++i, arg));
+            } else if (arg.equals("--no-screen")) {
+                options.screen = false;
+            } else if (arg.equals("--name-based")) {
+                options.nameBased = true;
+            } else if (arg.equals("--search")) {
+                options.search = true;
+                options.dryRun = true;
+            } else if (arg.equals("--explain")) {
+                options.search = true;
+                options.explain = true;
+                options.dryRun = true;
+            } else if (arg.equals("--slow-file")) {
+                options.slowFileMillis = positive(arg, value(args, ++i, arg));
+            } else if (arg.equals("--supertype-sources")) {
+                options.supertypeSources = true;
+            } else if (arg.equals("--journal")) {
+                options.journal = Paths.get(value(args, ++i, arg));
+            } else if (arg.startsWith("-")) {
+                throw new IllegalArgumentException("Unknown option " + arg);
+            } else {
+                options.paths.add(Paths.get(arg));
+            }
+        }
+
+        if ((options.workerShard == null) != (options.workerResult == null)) {
+            throw new IllegalArgumentException("--worker-shard and --worker-result must be given together");
+        }
+
+        if (!options.workerPrefixes.isEmpty() && options.workDir == null) {
+            throw new IllegalArgumentException("--worker-prefix needs a --work-dir that every host sees at that path");
+        }
+
+        if (options.nameBased && !options.classpath.isEmpty()) {
+            throw new IllegalArgumentException("--name-based parses without a classpath, leave out --classpath");
+        }
+
+        if (options.search && options.daemon) {
+            throw new IllegalArgumentException("--search and --explain only print diffs, leave out --daemon");
+        }
+
+        if (options.client != null && !CLIENT_COMMANDS.contains(options.client.toUpperCase(Locale.ROOT))) {
+            throw new IllegalArgumentException("Unknown client command " + options.client);
+        }
+
+        return options;
+    }
+
+    private static String value(final String[] args, final int i, final String option) {
+        if (i >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + option);
+        }
+        return args[i];
+    }
+
+    private static int positive(final String option, final String value) {
+        final int n;
+        try {
+            n = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Expected a number for " + option + " but got " + value);
+        }
+
+        if (n < 1) {
+            throw new IllegalArgumentException(option + " must be at least 1");
+        }
+        return n;
+    }
+
+    private static Format format(final String value) {
+        try {
+            return Format.valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown format " + value);
+        }
+    }
+
+    public List<Path> getSourceRoots() {
+        return paths.isEmpty() ? Collections.singletonList(Paths.get(".")) : Collections.unmodifiableList(paths);
+    }
+
+    /**
+     * @return the source files a client asks the daemon about.
+     */
+    public List<Path> getFiles() {
+        return Collections.unmodifiableList(paths);
+    }
+
+    public List<Path> getClasspath() {
+        return Collections.unmodifiableList(classpath);
+    }
+
+    /**
+     * @return the directories the build compiled the sources to, which the screen reads ahead of their tokens.
+     */
+    public List<Path> getClassDirectories() {
+        return Collections.unmodifiableList(classDirectories);
+    }
+
+    /**
+     * @return the lists {@link StaticCandidatesPlugin} wrote during the build; files not on any are not parsed.
+     */
+    public List<Path> getCandidateLists() {
+        return Collections.unmodifiableList(candidateLists);
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public int getIoThreads() {
+        return ioThreads;
+    }
+
+    public int getWriteThreads() {
+        return writeThreads;
+    }
+
+    /**
+     * @return whether changed sources are synced to disk before the run counts them as written.
+     */
+    public boolean isFsync() {
+        return fsync;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public boolean isDryRun() {
+        return dryRun;
+    }
+
+    public Format getFormat() {
+        return format;
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public int getShardSize() {
+        return shardSize;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * @return how long a worker JVM may take on its shard before it is killed and the shard is tried again.
+     */
+    public int getWorkerTimeoutSeconds() {
+        return workerTimeoutSeconds;
+    }
+
+    @Nullable
+    public String getWorkerHeap() {
+        return workerHeap;
+    }
+
+    /**
+     * @return the java executable that workers are started with, or null for the one of this JVM.
+     */
+    @Nullable
+    public String getWorkerJava() {
+        return workerJava;
+    }
+
+    /**
+     * @return the classpath that workers are started with, or null for the one of this JVM.
+     */
+    @Nullable
+    public String getWorkerClasspath() {
+        return workerClasspath;
+    }
+
+    /**
+     * @return the directory the shard and result files are exchanged in, or null for a temporary directory.
+     */
+    @Nullable
+    public Path getWorkDir() {
+        return workDir;
+    }
+
+    public List<List<String>> getWorkerPrefixes() {
+        return Collections.unmodifiableList(workerPrefixes);
+    }
+
+    @Nullable
+    public Path getWorkerShard() {
+        return workerShard;
+    }
+
+    @Nullable
+    public Path getWorkerResult() {
+        return workerResult;
+    }
+
+    public boolean isDaemon() {
+        return daemon;
+    }
+
+    @Nullable
+    public String getClient() {
+        return client;
+    }
+
+    public Path getSocket() {
+        return socket;
+    }
+
+    public boolean isWatch() {
+        return watch;
+    }
+
+    public int getDebounceMillis() {
+        return debounceMillis;
+    }
+
+    /**
+     * @return the directory that holds the type tables of the classpath jars, or null to not use them.
+     */
+    @Nullable
+    public Path getTypeCache() {
+        return typeCache;
+    }
+
+    /**
+     * @return the directory that holds parsed trees of earlier runs, or null to always parse.
+     */
+    @Nullable
+    public Path getTreeCache() {
+        return treeCache;
+    }
+
+    /**
+     * @return the file that records the files a run is done with, so that it can be resumed, or null to not keep
+     * one.
+     */
+    @Nullable
+    public Path getJournal() {
+        return journal;
+    }
+
+    /**
+     * @return whether files are only parsed if their tokens show a method the recipe could change, or a type such
+     * a file needs.
+     */
+    public boolean isScreen() {
+        return screen;
+    }
+
+    /**
+     * @return whether each batch is parsed with the sources of its supertypes from other batches.
+     */
+    public boolean isSupertypeSources() {
+        return supertypeSources;
+    }
+
+    /**
+     * @return whether the sources are parsed without a classpath and the recipe judges the names they use by the
+     * declarations of their own file, refusing a method whenever a name could be an inherited instance member.
+     */
+    public boolean isNameBased() {
+        return nameBased;
+    }
+
+    /**
+     * @return whether the recipe only marks the methods it could make static, and the run only prints them.
+     */
+    public boolean isSearch() {
+        return search;
+    }
+
+    /**
+     * @return whether a search also marks the methods the recipe rejected, with the first member in the way.
+     */
+    public boolean isExplain() {
+        return explain;
+    }
+
+    /**
+     * @return how long the recipe may take on a file before the file is logged with its size and slowest method.
+     */
+    public int getSlowFileMillis() {
+        return slowFileMillis;
+    }
+
+    /**
+     * Worker JVMs split the cores of a host between them unless --threads says otherwise.
+     */
+    public int getWorkerThreads() {
+        return threadsSet ? threads : Math.max(1, threads / Math.max(1, workers));
+    }
+
+    List<String> workerArgs(final Path shardFile, final Path resultFile) {
+        final List<String> args = new ArrayList<>(Arrays.asList(
+                "--threads", Integer.toString(getWorkerThreads()),
+                "--io-threads", Integer.toString(ioThreads),
+                "--batch-size", Integer.toString(batchSize),
+                "--slow-file", Integer.toString(slowFileMillis)));
+        if (!classpath.isEmpty()) {
+            final List<String> entries = new ArrayList<>();
+            for (Path entry : classpath) {
+                entries.add(entry.toAbsolutePath().toString());
+            }
+            args.add("--classpath");
+            args.add(String.join(File.pathSeparator, entries));
+        }
+        if (!classDirectories.isEmpty()) {
+            final List<String> directories = new ArrayList<>();
+            for (Path directory : classDirectories) {
+                directories.add(directory.toAbsolutePath().toString());
+            }
+            args.add("--classes");
+            args.add(String.join(File.pathSeparator, directories));
+        }
+        if (!candidateLists.isEmpty()) {
+            final List<String> lists = new ArrayList<>();
+            for (Path list : candidateLists) {
+                lists.add(list.toAbsolutePath().toString());
+            }
+            args.add("--candidates");
+            args.add(String.join(File.pathSeparator, lists));
+        }
+        if (typeCache == null) {
+            args.add("--no-type-cache");
+        } else {
+            args.add("--type-cache");
+            args.add(typeCache.toAbsolutePath().toString());
+        }
+        if (supertypeSources) {
+            args.add("--supertype-sources");
+        }
+        if (!screen) {
+            args.add("--no-screen");
+        }
+        if (nameBased) {
+            args.add("--name-based");
+        }
+        if (explain) {
+            args.add("--explain");
+        } else if (search) {
+            args.add("--search");
+        }
+        if (treeCache != null) {
+            args.add("--tree-cache");
+            args.add(treeCache.toAbsolutePath().toString());
+        }
+        args.addAll(Arrays.asList("--worker-shard", shardFile.toAbsolutePath().toString(),
+                "--worker-result", resultFile.toAbsolutePath().toString()));
+        return args;
+    }
+
+    private static Path defaultSocket() {
+        return Paths.get(System.getProperty("java.io.tmpdir"),
+                "rewrite-static-" + System.getProperty("user.name") + ".sock");
+    }
+
+    private static Path defaultTypeCache() {
+        return Paths.get(System.getProperty("user.home"), ".cache", "rewrite-static", "types");
+    }
+
+    public static String usage() {
+        return "Usage: rewrite-static [options] [source-root...]\n" +
+                "       rewrite-static --watch [options] [source-root...]\n" +
+                "       rewrite-static --daemon [options]\n" +
+                "       rewrite-static --client analyze|apply|ping|shutdown [file...]\n" +
+                "  --threads <n>         worker threads (default: available processors)\n" +
+                "  --io-threads <n>      concurrent file reads (default: " + DEFAULT_IO_THREADS + ")\n" +
+                "  --write-threads <n>   concurrent batches written back (default: " + DEFAULT_WRITE_THREADS + ")\n" +
+                "  --fsync               sync changed sources and their directories to disk before moving on\n" +
+                "  --batch-size <n>      files parsed together by one parser (default: " + DEFAULT_BATCH_SIZE + ")\n" +
+                "  --classpath <path>    classpath used for type attribution\n" +
+                "  --name-based          parse without a classpath and judge names by what their file declares;\n" +
+                "                        a method using a name that could be inherited is left alone\n" +
+                "  --type-cache <dir>    where type tables of the classpath jars are kept (default: " +
+                defaultTypeCache() + ")\n" +
+                "  --no-type-cache       take the members of classpath supertypes from type attribution alone\n" +
+                "  --tree-cache <dir>    keep parsed trees in <dir> and reuse them while the sources are unchanged\n" +
+                "  --no-screen           parse every file, also those whose tokens show nothing the recipe could\n" +
+                "                        change\n" +
+                "  --classes <path>      class directories of the sources; files whose up to date classes have no\n" +
+                "                        private or final instance method that ignores this are not parsed\n" +
+                "  --candidates <path>   lists written by javac -Xplugin:\"StaticCandidates <file> [<release>]\";\n" +
+                "                        files on none of them are not parsed\n" +
+                "  --supertype-sources   parse each batch with the sources of the supertypes it extends from other\n" +
+                "                        batches, keeping only a lexical index of the source roots in memory\n" +
+                "  --journal <file>      record finished files in <file> and skip them when the run starts again\n" +
+                "  --slow-file <ms>      log the files the recipe takes <ms> or longer on, with their size and\n" +
+                "                        slowest method (default: " + DEFAULT_SLOW_FILE_MILLIS + ")\n" +
+                "  --search              print diffs that mark the methods that could be static, changing nothing\n" +
+                "  --explain             search, and also mark the methods that cannot be static with why\n" +
+                "  --dry-run             print diffs instead of writing changes back\n" +
+                "  --format diff|jsonl   print a dry run as one patch for git apply, or as one JSON object per\n" +
+                "                        changed file (default: diff)\n" +
+                "  --workers <n>         split the sources into shards and run them in <n> worker JVMs\n" +
+                "  --shard-size <n>      most files in one shard (default: " + DEFAULT_SHARD_SIZE + ")\n" +
+                "  --max-attempts <n>    times a shard is tried before giving up on it (default: " +
+                DEFAULT_MAX_ATTEMPTS + ")\n" +
+                "  --worker-timeout <s>  seconds a worker may take on its shard before it is killed and the shard\n" +
+                "                        is tried again (default: " + DEFAULT_WORKER_TIMEOUT_SECONDS + ")\n" +
+                "  --worker-heap <size>  maximum heap of each worker JVM, e.g. 2g\n" +
+                "  --worker-java <path>  java executable of the workers (default: the one of this JVM)\n" +
+                "  --worker-cp <path>    classpath of the workers (default: the one of this JVM)\n" +
+                "  --worker-prefix <cmd> command that starts workers on another host, e.g. \"ssh host-2\";\n" +
+                "                        repeatable. The sources, --work-dir and the other paths given must be\n" +
+                "                        at the same paths on that host\n" +
+                "  --work-dir <dir>      directory the shard and result files are exchanged in; required with\n" +
+                "                        --worker-prefix (default: a temporary directory)\n" +
+                "  --watch               re-run on the files that are saved under the source roots\n" +
+                "  --debounce <ms>       quiet time that ends a burst of saves (default: " + DEFAULT_DEBOUNCE_MILLIS +
+                ")\n" +
+                "  --daemon              keep parsers warm and serve requests on --socket\n" +
+                "  --client <command>    send a request to the daemon listening on --socket\n" +
+                "  --socket <path>       Unix domain socket of the daemon (default: " + defaultSocket() + ")\n";
+    }
+}
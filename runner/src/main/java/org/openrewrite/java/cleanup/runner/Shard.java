@@ -0,0 +1,48 @@
+package org.openrewrite.java.cleanup.runner;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A unit of work for one worker JVM: files of one module under a source root, grouped by package.
+ */
+public record Shard(int id, Path root, String module, List<Path> files) {
+
+    void write(final Path shardFile) throws IOException {
+        try (BufferedWriter w = Files.newBufferedWriter(shardFile, StandardCharsets.UTF_8)) {
+            w.write(Integer.toString(id));
+            w.newLine();
+            w.write(root.toAbsolutePath().toString());
+            w.newLine();
+            w.write(module);
+            w.newLine();
+            for (Path file : files) {
+                w.write(file.toAbsolutePath().toString());
+                w.newLine();
+            }
+        }
+    }
+
+    static Shard read(final Path shardFile) throws IOException {
+        try (BufferedReader r = Files.newBufferedReader(shardFile, StandardCharsets.UTF_8)) {
+            final int id = Integer.parseInt(r.readLine());
+            final Path root = Paths.get(r.readLine());
+            final String module = r.readLine();
+
+            final List<Path> files = new ArrayList<>();
+            for (String line = r.readLine(); line != null; line = r.readLine()) {
+                if (!line.isEmpty()) {
+                    files.add(Paths.get(line));
+                }
+            }
+            return new Shard(id, root, module, files);
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package org.openrewrite.java.cleanup.runner;
+
+import org.openrewrite.internal.lang.Nullable;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Runs shards of the source roots in separate worker JVMs so that no single heap has to hold the whole repository.
+ * Workers report their changes in a result file; the coordinator merges them and is the only one writing sources.
+ * A shard whose worker fails, or does not finish within {@link RunnerOptions#getWorkerTimeoutSeconds()}, is queued
+ * again until it ran {@link RunnerOptions#getMaxAttempts()} times. Shard and result files are exchanged in
+ * {@link RunnerOptions#getWorkDir()}, which workers on other hosts must see at the same path.
+ */
+public class ShardCoordinator {
+    private final RunnerOptions options;
+    private final List<WorkerLauncher> launchers;
+    private final PrintStream out;
+    private final PrintStream err;
+    private final AtomicWriter sources;
+
+    private record Attempt(Shard shard, int number) {
+    }
+
+    public ShardCoordinator(final RunnerOptions options, final List<WorkerLauncher> launchers,
+                            final PrintStream out, final PrintStream err) {
+        if (launchers.isEmpty()) {
+            throw new IllegalArgumentException("At least one worker launcher is required");
+        }
+        this.options = options;
+        this.launchers = launchers;
+        this.out = out;
+        this.err = err;
+        this.sources = new AtomicWriter(options.isFsync());
+    }
+
+    public RunStats run() throws IOException, InterruptedException {
+        final RunStats stats = new RunStats();
+        final List<Shard> shards = ShardPlanner.plan(options.getSourceRoots(), options.getShardSize());
+        if (options.getJournal() == null) {
+            return run(shards, null, stats);
+        }
+
+        try (Journal journal = Journal.open(options.getJournal(), options, err)) {
+            final List<Shard> remaining = new ArrayList<>(shards.size());
+            for (Shard shard : shards) {
+                final List<Path> files = journal.remaining(shard.files(), options, out);
+                stats.resumed(shard.files().size() - files.size());
+                if (!files.isEmpty()) {
+                    remaining.add(new Shard(shard.id(), shard.root(), shard.module(), files));
+                }
+            }
+            return run(remaining, journal, stats);
+        }
+    }
+
+    private RunStats run(final List<Shard> shards, @Nullable final Journal journal, final RunStats stats)
+            throws IOException, InterruptedException {
+        // Start the biggest shards first, so that a large one does not keep a single worker busy at the end.
+        final Map<Shard, Long> sizes = new HashMap<>();
+        for (Shard shard : shards) {
+            long size = 0;
+            for (Path file : shard.files()) {
+                size += Files.size(file);
+            }
+            sizes.put(shard, size);
+        }
+        shards.sort(Comparator.comparing(sizes::get, Comparator.reverseOrder()));
+        final Path workDir;
+        if (options.getWorkDir() != null) {
+            // A directory of its own, so that coordinators sharing the work directory do not meet.
+            workDir = Files.createTempDirectory(Files.createDirectories(options.getWorkDir()), "rewrite-shards");
+        } else {
+            workDir = Files.createTempDirectory("rewrite-shards");
+        }
+
+        final BlockingQueue<Attempt> pending = new LinkedBlockingQueue<>();
+        for (Shard shard : shards) {
+            pending.add(new Attempt(shard, 1));
+        }
+        final AtomicInteger remaining = new AtomicInteger(shards.size());
+
+        final ExecutorService slots = Threads.io("coordinator");
+        try {
+            final List<Future<?>> workers = new ArrayList<>();
+            for (int slot = 0; slot < options.getWorkers(); slot++) {
+                final WorkerLauncher launcher = launchers.get(slot % launchers.size());
+                workers.add(slots.submit(() -> {
+                    while (remaining.get() > 0) {
+                        final Attempt attempt = pending.poll(100, TimeUnit.MILLISECONDS);
+                        if (attempt == null) {
+                            continue;
+                        }
+
+                        if (runShard(attempt.shard(), launcher, workDir, journal, stats)) {
+                            remaining.decrementAndGet();
+                        } else if (attempt.number() < options.getMaxAttempts()) {
+                            err.printf("Shard %d failed on attempt %d, queueing it again%n",
+                                    attempt.shard().id(), attempt.number());
+                            pending.add(new Attempt(attempt.shard(), attempt.number() + 1));
+                        } else {
+                            err.printf("Shard %d (%s) failed %d times, giving up on it%n", attempt.shard().id(),
+                                    attempt.shard().module(), attempt.number());
+                            stats.shardFailed();
+                            remaining.decrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            for (Future<?> worker : workers) {
+                try {
+                    worker.get();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException(e.getCause());
+                }
+            }
+        } finally {
+            slots.shutdownNow();
+            deleteRecursively(workDir);
+        }
+
+        stats.finish();
+        return stats;
+    }
+
+    private boolean runShard(final Shard shard, final WorkerLauncher launcher, final Path workDir,
+                             @Nullable final Journal journal, final RunStats stats) throws InterruptedException {
+        final Path shardFile = workDir.resolve("shard-" + shard.id() + ".txt");
+        final Path resultFile = workDir.resolve("shard-" + shard.id() + ".result");
+
+        try {
+            Files.deleteIfExists(resultFile);
+            shard.write(shardFile);
+
+            final Process worker = launcher.launch(options.workerArgs(shardFile, resultFile));
+            try {
+                if (!worker.waitFor(options.getWorkerTimeoutSeconds(), TimeUnit.SECONDS)) {
+                    err.printf("Worker for shard %d did not finish within %d s%n", shard.id(),
+                            options.getWorkerTimeoutSeconds());
+                    return false;
+                }
+            } finally {
+                // Also on a timeout or an interrupt, so that no worker outlives its attempt.
+                if (worker.isAlive()) {
+                    worker.destroyForcibly();
+                }
+            }
+            final int exitCode = worker.exitValue();
+            if (exitCode != 0 || !Files.exists(resultFile)) {
+                err.printf("Worker for shard %d exited with %d%n", shard.id(), exitCode);
+                return false;
+            }
+
+            final Map<Path, String> diffs = new HashMap<>();
+            ShardResult.readFrom(resultFile, stats, change -> {
+                merge(shard, change);
+                if (journal != null && options.isDryRun()) {
+                    diffs.put(Journal.key(shard.root().resolve(change.sourcePath())), change.diff());
+                }
+            });
+            if (journal != null) {
+                journal.record(shard.files(), diffs);
+            }
+            return true;
+        } catch (IOException e) {
+            err.printf("Worker for shard %d failed: %s%n", shard.id(), e.getMessage());
+            return false;
+        }
+    }
+
+    private void merge(final Shard shard, final ShardResult.Change change) throws IOException {
+        if (!options.isDryRun()) {
+            sources.write(shard.root().resolve(change.sourcePath()), change.after());
+        } else {
+            Patches.print(out, options.getFormat(),
+                    Patches.relativize(Paths.get(""), shard.root(), Paths.get(change.sourcePath())).toString(),
+                    change.diff());
+        }
+    }
+
+    private static void deleteRecursively(final Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            final List<Path> all = new ArrayList<>();
+            paths.forEach(all::add);
+            all.sort(Comparator.reverseOrder());
+            for (Path path : all) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
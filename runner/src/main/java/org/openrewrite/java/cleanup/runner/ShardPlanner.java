@@ -0,0 +1,87 @@
+package org.openrewrite.java.cleanup.runner;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Splits source roots into shards. A shard never spans two modules, and packages are only split when a single
+ * package holds more files than a shard may.
+ */
+public final class ShardPlanner {
+    private static final String[] BUILD_FILES = {"pom.xml", "build.gradle", "build.gradle.kts"};
+
+    private ShardPlanner() {
+    }
+
+    public static List<Shard> plan(final List<Path> roots, final int maxFilesPerShard) throws IOException {
+        final List<Shard> shards = new ArrayList<>();
+
+        for (Path root : roots) {
+            final Map<Path, String> modules = new HashMap<>();
+            final Map<String, Map<Path, List<Path>>> packagesByModule = new TreeMap<>();
+
+            for (Path file : javaFiles(root)) {
+                final Path pkg = file.getParent();
+                final String module = modules.computeIfAbsent(pkg, dir -> module(root, dir));
+                packagesByModule.computeIfAbsent(module, m -> new TreeMap<>())
+                        .computeIfAbsent(pkg, p -> new ArrayList<>())
+                        .add(file);
+            }
+
+            for (Map.Entry<String, Map<Path, List<Path>>> module : packagesByModule.entrySet()) {
+                List<Path> current = new ArrayList<>();
+
+                for (List<Path> pkg : module.getValue().values()) {
+                    if (!current.isEmpty() && current.size() + pkg.size() > maxFilesPerShard) {
+                        shards.add(new Shard(shards.size(), root, module.getKey(), current));
+                        current = new ArrayList<>();
+                    }
+
+                    for (Path file : pkg) {
+                        if (current.size() == maxFilesPerShard) {
+                            shards.add(new Shard(shards.size(), root, module.getKey(), current));
+                            current = new ArrayList<>();
+                        }
+                        current.add(file);
+                    }
+                }
+
+                if (!current.isEmpty()) {
+                    shards.add(new Shard(shards.size(), root, module.getKey(), current));
+                }
+            }
+        }
+
+        return shards;
+    }
+
+    static List<Path> javaFiles(final Path root) throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            return paths.filter(p -> p.toString().endsWith(".java") && Files.isRegularFile(p))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * @return the directory of the closest enclosing build file relative to the root, or "" for the root itself.
+     */
+    static String module(final Path root, final Path dir) {
+        for (Path d = dir; d != null && d.startsWith(root); d = d.getParent()) {
+            for (String buildFile : BUILD_FILES) {
+                if (Files.isRegularFile(d.resolve(buildFile))) {
+                    return root.relativize(d).toString();
+                }
+            }
+        }
+        return "";
+    }
+}
@@ -0,0 +1,121 @@
+package org.openrewrite.java.cleanup.runner;
+
+import org.openrewrite.Result;
+import org.openrewrite.SourceFile;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * What a worker JVM sends back for its shard: the changed files and the worker's counters. Workers never touch
+ * the sources themselves, so a shard whose worker died can be run again from scratch. Changes are appended to the
+ * result file as they are made and read back one at a time, so neither side holds more than one changed file.
+ */
+final class ShardResult implements ResultWriter, Closeable {
+    private static final int MAGIC = 0x52575349;
+
+    private final DataOutputStream out;
+
+    record Change(String sourcePath, String diff, byte[] after) {
+    }
+
+    interface ChangeHandler {
+        void accept(Change change) throws IOException;
+    }
+
+    ShardResult(final Path resultFile) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(resultFile)));
+        out.writeInt(MAGIC);
+    }
+
+    @Override
+    public void write(final Path root, final Result result) throws IOException {
+        final SourceFile after = result.getAfter();
+        if (after != null) {
+            final String diff = Patches.patch(Paths.get(""), root, result);
+            final byte[] bytes = after.printAllAsBytes();
+            synchronized (out) {
+                out.writeBoolean(true);
+                writeBytes(out, after.getSourcePath().toString().getBytes(StandardCharsets.UTF_8));
+                writeBytes(out, diff.getBytes(StandardCharsets.UTF_8));
+                writeBytes(out, bytes);
+            }
+        }
+    }
+
+    /**
+     * Ends the changes with the worker's counters. A result file without them is from a worker that died.
+     */
+    void finish(final RunStats stats) throws IOException {
+        synchronized (out) {
+            out.writeBoolean(false);
+            stats.writeTo(out);
+            out.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    /**
+     * Hands every change of a worker's result file to {@code handler} and then merges its counters into
+     * {@code stats}. The file is first read to its end without keeping anything, so that no change of a partly
+     * written file is handed on.
+     */
+    static void readFrom(final Path resultFile, final RunStats stats, final ChangeHandler handler)
+            throws IOException {
+        final RunStats workerStats = new RunStats();
+        try (DataInputStream in = open(resultFile)) {
+            while (in.readBoolean()) {
+                for (int i = 0; i < 3; i++) {
+                    in.skipNBytes(in.readInt());
+                }
+            }
+            workerStats.mergeFrom(in);
+        }
+
+        try (DataInputStream in = open(resultFile)) {
+            while (in.readBoolean()) {
+                handler.accept(new Change(new String(readBytes(in), StandardCharsets.UTF_8),
+                        new String(readBytes(in), StandardCharsets.UTF_8), readBytes(in)));
+            }
+        }
+
+        // Only count the worker once its whole result was readable.
+        stats.merge(workerStats);
+    }
+
+    private static DataInputStream open(final Path resultFile) throws IOException {
+        final DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(resultFile)));
+        try {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a shard result file: " + resultFile);
+            }
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+        return in;
+    }
+
+    private static void writeBytes(final DataOutputStream out, final byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(final DataInputStream in) throws IOException {
+        final byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return bytes;
+    }
+}
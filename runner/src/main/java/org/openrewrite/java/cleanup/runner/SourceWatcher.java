@@ -0,0 +1,203 @@
+package org.openrewrite.java.cleanup.runner;
+
+import org.openrewrite.Result;
+import org.openrewrite.SourceFile;
+import org.openrewrite.java.JavaParser;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Re-runs the recipe whenever source files under the source roots are saved. A burst of events, as editors and
+ * formatters produce on save, is collected until the roots have been quiet for the debounce interval, and only the
+ * saved files and the files that extend one of their types are run again, on a parser kept warm between runs.
+ */
+public class SourceWatcher implements AutoCloseable {
+    private final RunnerOptions options;
+    private final ResultWriter writer;
+    private final PrintStream err;
+    private final AnalysisEngine engine;
+    private final List<Path> roots = new ArrayList<>();
+    private final TypeIndex index = new TypeIndex();
+    private final WatchService watchService;
+    private final Map<WatchKey, Path> directories = new HashMap<>();
+
+    /**
+     * Content hashes of the files the watcher wrote itself, so that their events do not trigger another run.
+     */
+    private final Map<Path, Integer> written = new HashMap<>();
+
+    public SourceWatcher(final RunnerOptions options, final PrintStream out, final PrintStream err)
+            throws IOException {
+        this(options, options.isDryRun() ? ResultWriter.dryRun(options, out) :
+                ResultWriter.inPlace(options.isFsync()), err);
+    }
+
+    public SourceWatcher(final RunnerOptions options, final ResultWriter writer, final PrintStream err)
+            throws IOException {
+        this.options = options;
+        this.writer = writer;
+        this.err = err;
+        this.engine = new AnalysisEngine(options, err);
+        this.watchService = FileSystems.getDefault().newWatchService();
+        for (Path root : options.getSourceRoots()) {
+            roots.add(root.toAbsolutePath().normalize());
+        }
+    }
+
+    /**
+     * Watches the source roots until the watcher is closed or the thread is interrupted. A directory that cannot be
+     * registered, or a run that fails, is reported and the watcher goes on with the next saves.
+     */
+    public void watch() throws IOException, InterruptedException {
+        for (Path root : roots) {
+            register(root, new LinkedHashSet<>());
+        }
+        final JavaParser parser = new ParserPool(engine, 1).take();
+        err.println("Watching " + roots);
+
+        try {
+            while (true) {
+                final Set<Path> changed = new LinkedHashSet<>();
+                poll(watchService.take(), changed);
+                for (WatchKey key = watchService.poll(options.getDebounceMillis(), TimeUnit.MILLISECONDS);
+                     key != null;
+                     key = watchService.poll(options.getDebounceMillis(), TimeUnit.MILLISECONDS)) {
+                    poll(key, changed);
+                }
+                try {
+                    rerun(parser, changed);
+                } catch (IOException | RuntimeException e) {
+                    err.println("Failed to run on " + changed.size() + " saved files: " + e.getMessage());
+                }
+            }
+        } catch (ClosedWatchServiceException e) {
+            // Closed from another thread, which is how the watcher is stopped.
+        }
+    }
+
+    private void poll(final WatchKey key, final Set<Path> changed) {
+        final Path dir = directories.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (dir == null || event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                continue;
+            }
+
+            final Path path = dir.resolve((Path) event.context());
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE &&
+                Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+                try {
+                    register(path, changed);
+                } catch (IOException | UncheckedIOException e) {
+                    err.println("Not watching " + path + ": " + e.getMessage());
+                }
+            } else if (path.toString().endsWith(".java")) {
+                changed.add(path);
+            }
+        }
+        if (!key.reset()) {
+            directories.remove(key);
+        }
+    }
+
+    private void register(final Path root, final Set<Path> changed) throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : (Iterable<Path>) paths::iterator) {
+                if (Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+                    directories.put(path.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                            StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE), path);
+                } else if (path.toString().endsWith(".java")) {
+                    index.update(path);
+                    changed.add(path);
+                }
+            }
+        }
+    }
+
+    private void rerun(final JavaParser parser, final Set<Path> changed) throws IOException {
+        final long start = System.nanoTime();
+
+        final Set<Path> saved = new LinkedHashSet<>();
+        for (Path file : changed) {
+            if (!Files.isRegularFile(file)) {
+                index.remove(file);
+                written.remove(file);
+                continue;
+            }
+
+            final Integer ours = written.remove(file);
+            if (ours == null || ours != Arrays.hashCode(Files.readAllBytes(file))) {
+                index.update(file);
+                saved.add(file);
+            }
+        }
+        if (saved.isEmpty()) {
+            return;
+        }
+
+        final Set<Path> affected = index.dependents(saved);
+        final Set<Path> parsed = new LinkedHashSet<>(affected);
+        parsed.addAll(index.supertypeSources(affected));
+
+        final RunStats stats = new RunStats();
+        int changedFiles = 0;
+        for (Map.Entry<Path, List<Path>> source : byRoot(parsed).entrySet()) {
+            final Path root = source.getKey();
+            final List<SourceFile> sourceFiles = engine.parse(parser, root,
+                    AnalysisEngine.read(source.getValue()), stats);
+            for (Result result : engine.analyze(sourceFiles, stats)) {
+                final SourceFile after = result.getAfter();
+                if (after == null || !affected.contains(root.resolve(after.getSourcePath()))) {
+                    continue;
+                }
+
+                writer.write(root, result);
+                if (!options.isDryRun()) {
+                    written.put(root.resolve(after.getSourcePath()), Arrays.hashCode(after.printAllAsBytes()));
+                }
+                changedFiles++;
+            }
+        }
+
+        err.println("Ran on " + affected.size() + " files in " +
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms, " + changedFiles + " changed");
+    }
+
+    private Map<Path, List<Path>> byRoot(final Set<Path> files) {
+        final Map<Path, List<Path>> byRoot = new LinkedHashMap<>();
+        for (Path file : files) {
+            for (Path root : roots) {
+                if (file.startsWith(root)) {
+                    byRoot.computeIfAbsent(root, r -> new ArrayList<>()).add(file);
+                    break;
+                }
+            }
+        }
+        return byRoot;
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+}
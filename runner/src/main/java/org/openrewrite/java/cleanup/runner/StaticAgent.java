@@ -0,0 +1,30 @@
+package org.openrewrite.java.cleanup.runner;
+
+import java.lang.instrument.Instrumentation;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The Java agent that applies {@link StaticTransformer} as classes are loaded, for code whose sources cannot be
+ * changed: {@code -javaagent:runner.jar=com.example,org.example.generated} changes the classes of the packages it is
+ * given, and of their subpackages.
+ */
+public final class StaticAgent {
+    private StaticAgent() {
+    }
+
+    public static void premain(final String args, final Instrumentation instrumentation) {
+        final List<String> packages = new ArrayList<>();
+        if (args != null) {
+            for (String name : args.split(",")) {
+                if (!name.isBlank()) {
+                    packages.add(name.trim());
+                }
+            }
+        }
+        if (packages.isEmpty()) {
+            throw new IllegalArgumentException("Usage: -javaagent:<runner jar>=<package>[,<package>...]");
+        }
+        instrumentation.addTransformer(new StaticTransformer(packages));
+    }
+}
@@ -0,0 +1,106 @@
+package org.openrewrite.java.cleanup.runner;
+
+import com.sun.source.util.JavacTask;
+import com.sun.source.util.Plugin;
+import com.sun.source.util.TaskEvent;
+import com.sun.source.util.TaskListener;
+
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.TreeSet;
+
+/**
+ * A javac plugin that lists the methods the recipe would make static while a build compiles them, from the trees
+ * javac has attributed anyway. Enabled with {@code -Xplugin:"StaticCandidates <file> [<release>]"} and this jar on
+ * the processor path, it writes one line per method to {@code file} when the compilation finishes: the absolute path
+ * of its source, the binary name of its class and its name with its parameter types, separated by tabs.
+ * {@code release} is the Java version the sources are compiled for, without which methods of nested classes are
+ * left out as they are for sources older than Java 16.
+ * <p>
+ * Passed to {@code --candidates}, the lists rule out every file that is not on one of them.
+ */
+public class StaticCandidatesPlugin implements Plugin {
+    static final String NAME = "StaticCandidates";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void init(final JavacTask task, final String... args) {
+        if (args.length == 0 || args.length > 2) {
+            throw new IllegalArgumentException("Usage: -Xplugin:\"" + NAME + " <file> [<release>]\"");
+        }
+        final Path output = Paths.get(args[0]);
+        final StaticEligibility eligibility = new StaticEligibility(task,
+                args.length == 2 ? Integer.parseInt(args[1]) : 0);
+        final List<StaticEligibility.Method> methods = new ArrayList<>();
+
+        task.addTaskListener(new TaskListener() {
+            @Override
+            public void finished(final TaskEvent e) {
+                if (e.getKind() == TaskEvent.Kind.ANALYZE && e.getTypeElement() != null) {
+                    methods.addAll(eligibility.analyze(e.getCompilationUnit(), e.getTypeElement()));
+                } else if (e.getKind() == TaskEvent.Kind.COMPILATION) {
+                    write(output, lines(StaticEligibility.eligible(methods), task.getElements(), task.getTypes()));
+                }
+            }
+        });
+    }
+
+    /**
+     * @return the sources that the candidate lists name, by their absolute path.
+     */
+    static Set<Path> listedSources(final List<Path> lists) throws IOException {
+        final Set<Path> sources = new HashSet<>();
+        for (Path list : lists) {
+            for (String line : Files.readAllLines(list)) {
+                final int tab = line.indexOf('\t');
+                if (tab > 0) {
+                    sources.add(Paths.get(line.substring(0, tab)).toAbsolutePath().normalize());
+                }
+            }
+        }
+        return sources;
+    }
+
+    private static Set<String> lines(final List<StaticEligibility.Method> methods, final Elements elements,
+                                     final Types types) {
+        final Set<String> lines = new TreeSet<>();
+        for (StaticEligibility.Method method : methods) {
+            final ExecutableElement element = method.element();
+            final StringJoiner parameters = new StringJoiner(",", element.getSimpleName() + "(", ")");
+            for (VariableElement parameter : element.getParameters()) {
+                parameters.add(types.erasure(parameter.asType()).toString());
+            }
+            lines.add(method.source() + "\t" +
+                      elements.getBinaryName((TypeElement) element.getEnclosingElement()) + "\t" + parameters);
+        }
+        return lines;
+    }
+
+    private static void write(final Path output, final Set<String> lines) {
+        try {
+            if (output.getParent() != null) {
+                Files.createDirectories(output.getParent());
+            }
+            Files.write(output, lines);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
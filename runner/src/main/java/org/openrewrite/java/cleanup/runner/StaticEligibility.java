@@ -0,0 +1,295 @@
+package org.openrewrite.java.cleanup.runner;
+
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.IdentifierTree;
+import com.sun.source.tree.MemberReferenceTree;
+import com.sun.source.tree.MemberSelectTree;
+import com.sun.source.tree.MethodTree;
+import com.sun.source.tree.NewClassTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.util.JavacTask;
+import com.sun.source.util.TreePath;
+import com.sun.source.util.TreePathScanner;
+import com.sun.source.util.Trees;
+import org.openrewrite.internal.lang.Nullable;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The rules of the recipe applied to javac's attributed trees: a private or final instance method is a candidate
+ * unless it is a serialization hook of a serializable class, is declared in a nested class of a source older than
+ * Java 16, or uses an instance of its class. A use is any {@code this} or {@code super} of the class, an instance
+ * member reached without a qualifier, or a new instance of an inner member class. Uses of classes declared in the
+ * method body itself do not count. A call to another method of the file without a qualifier only counts if that
+ * method is not a candidate, as the recipe runs until it changes nothing more.
+ * <p>
+ * As javac decides what each name refers to, instance members reached through {@code this.} and methods that
+ * override another one are never candidates, where the recipe would change them.
+ */
+final class StaticEligibility {
+    private static final int MIN_JAVA_VERSION_FOR_INNER_CLASSES = 16;
+
+    /**
+     * @param blocked whether the method uses an instance of its class other than by calling {@code calls}.
+     * @param calls   the methods of the file the method calls on the instance of its class.
+     */
+    record Method(Path source, ExecutableElement element, boolean blocked, Set<ExecutableElement> calls) {
+    }
+
+    private final Trees trees;
+    private final Elements elements;
+    private final Types types;
+    private final int release;
+
+    /**
+     * @param release the Java version the sources are compiled for, or 0 if it is unknown.
+     */
+    StaticEligibility(final JavacTask task, final int release) {
+        this.trees = Trees.instance(task);
+        this.elements = task.getElements();
+        this.types = task.getTypes();
+        this.release = release;
+    }
+
+    /**
+     * @return the methods of {@code type} and its nested classes that the recipe looks at, each with what it uses of
+     * the instance of its class.
+     */
+    List<Method> analyze(final CompilationUnitTree unit, final TypeElement type) {
+        final Path source = Paths.get(unit.getSourceFile().toUri()).toAbsolutePath().normalize();
+        final List<Method> methods = new ArrayList<>();
+        final TreePath path = trees.getPath(type);
+        if (path == null) {
+            return methods;
+        }
+        new TreePathScanner<Void, Void>() {
+            @Override
+            public Void visitMethod(final MethodTree node, final Void unused) {
+                final Element element = trees.getElement(getCurrentPath());
+                if (element instanceof ExecutableElement method && isConsidered(method) && node.getBody() != null) {
+                    final Uses uses = new Uses((TypeElement) method.getEnclosingElement());
+                    uses.scan(new TreePath(getCurrentPath(), node.getBody()), null);
+                    methods.add(new Method(source, method, uses.blocked || !isEligible(method), uses.calls));
+                }
+                return super.visitMethod(node, unused);
+            }
+        }.scan(path, null);
+        return methods;
+    }
+
+    /**
+     * @return the methods that the recipe makes static, by the methods it would need to make static first.
+     */
+    static List<Method> eligible(final List<Method> methods) {
+        final Map<ExecutableElement, Method> pending = new LinkedHashMap<>();
+        for (Method method : methods) {
+            if (!method.blocked()) {
+                pending.put(method.element(), method);
+            }
+        }
+
+        final Set<ExecutableElement> eligible = new HashSet<>();
+        final List<Method> result = new ArrayList<>();
+        for (boolean changed = true; changed; ) {
+            changed = false;
+            for (Method method : new ArrayList<>(pending.values())) {
+                if (eligible.containsAll(method.calls())) {
+                    eligible.add(method.element());
+                    result.add(method);
+                    pending.remove(method.element());
+                    changed = true;
+                }
+            }
+        }
+        return result;
+    }
+
+    private static boolean isConsidered(final ExecutableElement method) {
+        final Set<Modifier> modifiers = method.getModifiers();
+        return method.getKind() == ElementKind.METHOD &&
+               (modifiers.contains(Modifier.PRIVATE) || modifiers.contains(Modifier.FINAL)) &&
+               !modifiers.contains(Modifier.STATIC) && !modifiers.contains(Modifier.ABSTRACT) &&
+               !modifiers.contains(Modifier.NATIVE);
+    }
+
+    private boolean isEligible(final ExecutableElement method) {
+        final TypeElement owner = (TypeElement) method.getEnclosingElement();
+        if (owner.getNestingKind() != NestingKind.TOP_LEVEL && release < MIN_JAVA_VERSION_FOR_INNER_CLASSES) {
+            return false;
+        }
+        return !isSerializationHook(method, owner) && !overridesAnything(method, owner);
+    }
+
+    private boolean isSerializationHook(final ExecutableElement method, final TypeElement owner) {
+        final TypeElement serializable = elements.getTypeElement("java.io.Serializable");
+        if (serializable == null || !types.isSubtype(types.erasure(owner.asType()), serializable.asType()) ||
+            !method.getModifiers().contains(Modifier.PRIVATE) || method.getReturnType().getKind() != TypeKind.VOID) {
+            return false;
+        }
+        final List<String> parameters = new ArrayList<>();
+        method.getParameters().forEach(parameter -> parameters.add(types.erasure(parameter.asType()).toString()));
+        return switch (method.getSimpleName().toString()) {
+            case "writeObject" -> parameters.equals(List.of("java.io.ObjectOutputStream"));
+            case "readObject" -> parameters.equals(List.of("java.io.ObjectInputStream"));
+            case "readObjectNoData" -> parameters.isEmpty();
+            default -> false;
+        };
+    }
+
+    private boolean overridesAnything(final ExecutableElement method, final TypeElement owner) {
+        final Deque<TypeMirror> supertypes = new ArrayDeque<>(types.directSupertypes(owner.asType()));
+        while (!supertypes.isEmpty()) {
+            final TypeMirror supertype = supertypes.poll();
+            if (supertype instanceof DeclaredType declared) {
+                for (Element member : declared.asElement().getEnclosedElements()) {
+                    if (member instanceof ExecutableElement overridden &&
+                        elements.overrides(method, overridden, owner)) {
+                        return true;
+                    }
+                }
+                supertypes.addAll(types.directSupertypes(supertype));
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Finds what a method body uses of the instance of {@code owner} and of its enclosing classes.
+     */
+    private final class Uses extends TreePathScanner<Void, Void> {
+        private final TypeElement owner;
+        private final Set<Element> declaredInBody = new HashSet<>();
+        private final Set<ExecutableElement> calls = new HashSet<>();
+        private boolean blocked;
+
+        Uses(final TypeElement owner) {
+            this.owner = owner;
+        }
+
+        @Override
+        public Void scan(final Tree tree, final Void unused) {
+            return blocked ? null : super.scan(tree, unused);
+        }
+
+        @Override
+        public Void visitClass(final ClassTree node, final Void unused) {
+            declaredInBody.add(trees.getElement(getCurrentPath()));
+            return super.visitClass(node, unused);
+        }
+
+        @Override
+        public Void visitIdentifier(final IdentifierTree node, final Void unused) {
+            final String name = node.getName().toString();
+            if (name.equals("this") || name.equals("super")) {
+                blocked |= !declaredInBody.contains(enclosingClass());
+                return null;
+            }
+
+            final Element element = trees.getElement(getCurrentPath());
+            if (element != null && !element.getModifiers().contains(Modifier.STATIC) &&
+                (element.getKind() == ElementKind.FIELD || element.getKind() == ElementKind.METHOD)) {
+                final TypeElement receiver = implicitReceiver(element);
+                if (receiver == null || !declaredInBody.contains(receiver)) {
+                    if (element instanceof ExecutableElement method && receiver == owner && isConsidered(method)) {
+                        calls.add(method);
+                    } else {
+                        blocked = true;
+                    }
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public Void visitMemberSelect(final MemberSelectTree node, final Void unused) {
+            final String name = node.getIdentifier().toString();
+            if (name.equals("this") || name.equals("super")) {
+                final Element qualifier = trees.getElement(new TreePath(getCurrentPath(), node.getExpression()));
+                blocked |= !declaredInBody.contains(qualifier);
+                return null;
+            }
+            return super.visitMemberSelect(node, unused);
+        }
+
+        @Override
+        public Void visitNewClass(final NewClassTree node, final Void unused) {
+            if (node.getEnclosingExpression() == null) {
+                final Element constructor = trees.getElement(getCurrentPath());
+                if (constructor != null) {
+                    TypeElement created = (TypeElement) constructor.getEnclosingElement();
+                    if (created.getNestingKind() == NestingKind.ANONYMOUS &&
+                        created.getSuperclass() instanceof DeclaredType superclass) {
+                        created = (TypeElement) superclass.asElement();
+                    }
+                    blocked |= needsOuterInstance(created);
+                }
+            }
+            return super.visitNewClass(node, unused);
+        }
+
+        @Override
+        public Void visitMemberReference(final MemberReferenceTree node, final Void unused) {
+            if (node.getMode() == MemberReferenceTree.ReferenceMode.NEW &&
+                trees.getElement(new TreePath(getCurrentPath(), node.getQualifierExpression()))
+                        instanceof TypeElement created) {
+                blocked |= needsOuterInstance(created);
+            }
+            return super.visitMemberReference(node, unused);
+        }
+
+        private boolean needsOuterInstance(final TypeElement created) {
+            return created.getNestingKind() == NestingKind.MEMBER &&
+                   !created.getModifiers().contains(Modifier.STATIC) &&
+                   created.getEnclosingElement().getKind().isClass() &&
+                   !declaredInBody.contains(created.getEnclosingElement());
+        }
+
+        @Nullable
+        private TypeElement enclosingClass() {
+            for (TreePath path = getCurrentPath(); path != null; path = path.getParentPath()) {
+                if (path.getLeaf() instanceof ClassTree) {
+                    return (TypeElement) trees.getElement(path);
+                }
+            }
+            return null;
+        }
+
+        /**
+         * @return the innermost enclosing class that has {@code member}, which is the class whose instance an
+         * unqualified use of it goes through.
+         */
+        @Nullable
+        private TypeElement implicitReceiver(final Element member) {
+            final TypeMirror memberOwner = types.erasure(member.getEnclosingElement().asType());
+            for (TreePath path = getCurrentPath(); path != null; path = path.getParentPath()) {
+                if (path.getLeaf() instanceof ClassTree &&
+                    trees.getElement(path) instanceof TypeElement enclosing &&
+                    types.isSubtype(types.erasure(enclosing.asType()), memberOwner)) {
+                    return enclosing;
+                }
+            }
+            return null;
+        }
+    }
+}
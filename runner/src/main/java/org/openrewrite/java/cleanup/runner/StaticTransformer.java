@@ -0,0 +1,355 @@
+package org.openrewrite.java.cleanup.runner;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.ConstantDynamic;
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.FrameNode;
+import org.objectweb.asm.tree.IincInsnNode;
+import org.objectweb.asm.tree.InsnList;
+import org.objectweb.asm.tree.InsnNode;
+import org.objectweb.asm.tree.LocalVariableAnnotationNode;
+import org.objectweb.asm.tree.MethodInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.VarInsnNode;
+import org.objectweb.asm.tree.analysis.Analyzer;
+import org.objectweb.asm.tree.analysis.AnalyzerException;
+import org.objectweb.asm.tree.analysis.Frame;
+import org.objectweb.asm.tree.analysis.SourceInterpreter;
+import org.objectweb.asm.tree.analysis.SourceValue;
+import org.openrewrite.internal.lang.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.instrument.ClassFileTransformer;
+import java.security.ProtectionDomain;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * Makes static, as classes are loaded, the private instance methods whose code never touches local slot 0, which
+ * holds {@code this}. The receiver slot is dropped from each such method, and each call to it from the classes of its
+ * nest is turned into an {@code invokestatic}. A caller no longer pushes its own {@code this} for such a call, and any
+ * other receiver is still checked for null before it is dropped, so a call on null throws as before. Only classes in
+ * the packages of the allow-list are changed.
+ * <p>
+ * A method stays as it is when any class of its nest refers to it through a method handle, as lambdas do, since the
+ * handle would need the receiver. Serialization hooks stay as they are, as serialization looks them up as instance
+ * methods.
+ */
+final class StaticTransformer implements ClassFileTransformer {
+    private static final Set<String> SERIALIZATION_HOOKS = Set.of("writeObject(Ljava/io/ObjectOutputStream;)V",
+            "readObject(Ljava/io/ObjectInputStream;)V", "readObjectNoData()V");
+
+    /**
+     * The methods made static in a nest, by the internal name of their class.
+     */
+    private record Nest(Map<String, Set<String>> converted) {
+        boolean isConverted(final String owner, final String method) {
+            return converted.getOrDefault(owner, Collections.emptySet()).contains(method);
+        }
+    }
+
+    private final List<String> packages;
+    private final Map<ClassLoader, Map<String, Nest>> nests = new WeakHashMap<>();
+
+    /**
+     * @param packages the packages whose classes, and those of their subpackages, are changed.
+     */
+    StaticTransformer(final List<String> packages) {
+        final List<String> prefixes = new ArrayList<>();
+        for (String name : packages) {
+            prefixes.add(name.replace('.', '/') + "/");
+        }
+        this.packages = prefixes;
+    }
+
+    @Override
+    @Nullable
+    public byte[] transform(@Nullable final ClassLoader loader, @Nullable final String className,
+                            @Nullable final Class<?> classBeingRedefined,
+                            @Nullable final ProtectionDomain protectionDomain, final byte[] classfileBuffer) {
+        if (loader == null || className == null || classBeingRedefined != null || !isAllowed(className)) {
+            return null;
+        }
+        try {
+            final Nest nest = nest(loader, className, classfileBuffer);
+            if (nest.converted().isEmpty()) {
+                return null;
+            }
+            return convert(classfileBuffer, className, nest);
+        } catch (AnalyzerException | RuntimeException e) {
+            // A class that cannot be read or converted is loaded as it is.
+            return null;
+        }
+    }
+
+    private boolean isAllowed(final String className) {
+        for (String prefix : packages) {
+            if (className.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The classes of a nest are converted as each is loaded, so every one of them works out the same methods of the
+     * nest to make static from the class files of all of them.
+     */
+    private Nest nest(final ClassLoader loader, final String className, final byte[] classFile) {
+        final String host = nestHost(new ClassReader(classFile), className);
+        synchronized (nests) {
+            final Nest known = nests.computeIfAbsent(loader, l -> new HashMap<>()).get(host);
+            if (known != null) {
+                return known;
+            }
+        }
+
+        final Map<String, byte[]> members = new HashMap<>();
+        members.put(className, classFile);
+        members.put(host, host.equals(className) ? classFile : read(loader, host));
+        if (members.get(host) != null) {
+            for (String member : nestMembers(members.get(host))) {
+                if (!members.containsKey(member)) {
+                    members.put(member, read(loader, member));
+                }
+            }
+        }
+        // A class of the nest that cannot be read could refer to any of its methods through a handle.
+        final Nest nest = members.containsValue(null) ? new Nest(Collections.emptyMap()) :
+                analyze(members);
+        synchronized (nests) {
+            nests.computeIfAbsent(loader, l -> new HashMap<>()).putIfAbsent(host, nest);
+            return nests.get(loader).get(host);
+        }
+    }
+
+    @Nullable
+    private static byte[] read(final ClassLoader loader, final String className) {
+        try (InputStream in = loader.getResourceAsStream(className + ".class")) {
+            return in == null ? null : in.readAllBytes();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static String nestHost(final ClassReader reader, final String className) {
+        final String[] host = {className};
+        reader.accept(new ClassVisitor(Opcodes.ASM9) {
+            @Override
+            public void visitNestHost(final String nestHost) {
+                host[0] = nestHost;
+            }
+        }, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+        return host[0];
+    }
+
+    private static List<String> nestMembers(final byte[] hostFile) {
+        final List<String> members = new ArrayList<>();
+        new ClassReader(hostFile).accept(new ClassVisitor(Opcodes.ASM9) {
+            @Override
+            public void visitNestMember(final String nestMember) {
+                members.add(nestMember);
+            }
+        }, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+        return members;
+    }
+
+    private static Nest analyze(final Map<String, byte[]> members) {
+        final Map<String, Set<String>> candidates = new HashMap<>();
+        final Set<String> handled = new HashSet<>();
+        for (Map.Entry<String, byte[]> member : members.entrySet()) {
+            final Set<String> classCandidates = new HashSet<>();
+            new ClassReader(member.getValue()).accept(new ClassVisitor(Opcodes.ASM9) {
+                @Override
+                public MethodVisitor visitMethod(final int access, final String name, final String descriptor,
+                                                 final String signature, final String[] exceptions) {
+                    final String method = name + descriptor;
+                    final boolean candidate = (access & Opcodes.ACC_PRIVATE) != 0 &&
+                                              (access & (Opcodes.ACC_STATIC | Opcodes.ACC_ABSTRACT |
+                                                         Opcodes.ACC_NATIVE)) == 0 &&
+                                              !name.startsWith("<") && !SERIALIZATION_HOOKS.contains(method);
+                    return new MethodVisitor(Opcodes.ASM9) {
+                        private boolean usesReceiver;
+
+                        @Override
+                        public void visitVarInsn(final int opcode, final int varIndex) {
+                            usesReceiver |= varIndex == 0;
+                        }
+
+                        @Override
+                        public void visitIincInsn(final int varIndex, final int increment) {
+                            usesReceiver |= varIndex == 0;
+                        }
+
+                        @Override
+                        public void visitLdcInsn(final Object value) {
+                            handled(value);
+                        }
+
+                        @Override
+                        public void visitInvokeDynamicInsn(final String name, final String descriptor,
+                                                           final Handle bootstrapMethodHandle,
+                                                           final Object... bootstrapMethodArguments) {
+                            handled(bootstrapMethodHandle);
+                            Arrays.asList(bootstrapMethodArguments).forEach(this::handled);
+                        }
+
+                        private void handled(final Object value) {
+                            if (value instanceof Handle handle) {
+                                handled.add(handle.getOwner() + "." + handle.getName() + handle.getDesc());
+                            } else if (value instanceof ConstantDynamic constant) {
+                                handled(constant.getBootstrapMethod());
+                                for (int i = 0; i < constant.getBootstrapMethodArgumentCount(); i++) {
+                                    handled(constant.getBootstrapMethodArgument(i));
+                                }
+                            }
+                        }
+
+                        @Override
+                        public void visitEnd() {
+                            if (candidate && !usesReceiver) {
+                                classCandidates.add(method);
+                            }
+                        }
+                    };
+                }
+            }, ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+            candidates.put(member.getKey(), classCandidates);
+        }
+
+        final Map<String, Set<String>> converted = new HashMap<>();
+        for (Map.Entry<String, Set<String>> owner : candidates.entrySet()) {
+            final Set<String> methods = new HashSet<>(owner.getValue());
+            methods.removeIf(method -> handled.contains(owner.getKey() + "." + method));
+            if (!methods.isEmpty()) {
+                converted.put(owner.getKey(), methods);
+            }
+        }
+        return new Nest(converted);
+    }
+
+    /**
+     * Makes the converted methods of a class static and calls the converted methods of its nest statically.
+     */
+    private static byte[] convert(final byte[] classFile, final String className, final Nest nest)
+            throws AnalyzerException {
+        final ClassNode node = new ClassNode();
+        new ClassReader(classFile).accept(node, ClassReader.EXPAND_FRAMES);
+        for (MethodNode method : node.methods) {
+            convertCalls(className, method, nest);
+            if (nest.isConverted(className, method.name + method.desc)) {
+                dropReceiver(method);
+            }
+        }
+        final ClassWriter writer = new ClassWriter(0);
+        node.accept(writer);
+        return writer.toByteArray();
+    }
+
+    /**
+     * Turns the calls to converted methods into static calls. Where the receiver is the {@code this} of the caller,
+     * pushed right before the arguments, it is not pushed anymore. Any other receiver is checked for null and dropped,
+     * with the arguments above it kept in spare locals meanwhile.
+     */
+    private static void convertCalls(final String className, final MethodNode method, final Nest nest)
+            throws AnalyzerException {
+        final List<MethodInsnNode> calls = new ArrayList<>();
+        for (AbstractInsnNode insn : method.instructions) {
+            if (insn instanceof MethodInsnNode call && call.getOpcode() != Opcodes.INVOKESTATIC &&
+                nest.isConverted(call.owner, call.name + call.desc)) {
+                calls.add(call);
+            }
+        }
+        if (calls.isEmpty()) {
+            return;
+        }
+
+        final Frame<SourceValue>[] frames = new Analyzer<>(new SourceInterpreter()).analyze(className, method);
+        int spares = 0;
+        for (MethodInsnNode call : calls) {
+            final Frame<SourceValue> frame = frames[method.instructions.indexOf(call)];
+            if (frame == null) {
+                // Unreachable code is left as it is.
+                continue;
+            }
+            final Type[] arguments = Type.getArgumentTypes(call.desc);
+            final SourceValue receiver = frame.getStack(frame.getStackSize() - arguments.length - 1);
+            final AbstractInsnNode pushed = receiver.insns.size() == 1 ? receiver.insns.iterator().next() : null;
+            if ((method.access & Opcodes.ACC_STATIC) == 0 && pushed instanceof VarInsnNode load &&
+                load.getOpcode() == Opcodes.ALOAD && load.var == 0 && !hasFrameBetween(load, call)) {
+                method.instructions.remove(load);
+            } else {
+                final InsnList spill = new InsnList();
+                final InsnList restore = new InsnList();
+                int slot = method.maxLocals;
+                for (Type argument : arguments) {
+                    spill.insert(new VarInsnNode(argument.getOpcode(Opcodes.ISTORE), slot));
+                    restore.add(new VarInsnNode(argument.getOpcode(Opcodes.ILOAD), slot));
+                    slot += argument.getSize();
+                }
+                spares = Math.max(spares, slot - method.maxLocals);
+                spill.add(new MethodInsnNode(Opcodes.INVOKESTATIC, "java/util/Objects", "requireNonNull",
+                        "(Ljava/lang/Object;)Ljava/lang/Object;", false));
+                spill.add(new InsnNode(Opcodes.POP));
+                spill.add(restore);
+                method.instructions.insertBefore(call, spill);
+            }
+            call.setOpcode(Opcodes.INVOKESTATIC);
+        }
+        method.maxLocals += spares;
+    }
+
+    /**
+     * A frame between the receiver and the call records the receiver on the stack, so it has to stay pushed.
+     */
+    private static boolean hasFrameBetween(final AbstractInsnNode from, final AbstractInsnNode to) {
+        for (AbstractInsnNode insn = from; insn != to; insn = insn.getNext()) {
+            if (insn instanceof FrameNode) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Makes a method static and moves every local one slot down over the receiver it no longer has.
+     */
+    private static void dropReceiver(final MethodNode method) {
+        method.access |= Opcodes.ACC_STATIC;
+        for (AbstractInsnNode insn : method.instructions) {
+            if (insn instanceof VarInsnNode load) {
+                load.var--;
+            } else if (insn instanceof IincInsnNode increment) {
+                increment.var--;
+            } else if (insn instanceof FrameNode frame && frame.local != null && !frame.local.isEmpty()) {
+                frame.local = new ArrayList<>(frame.local.subList(1, frame.local.size()));
+            }
+        }
+        if (method.localVariables != null) {
+            method.localVariables.removeIf(variable -> variable.index == 0);
+            method.localVariables.forEach(variable -> variable.index--);
+        }
+        for (List<LocalVariableAnnotationNode> annotations : Arrays.asList(method.visibleLocalVariableAnnotations,
+                method.invisibleLocalVariableAnnotations)) {
+            if (annotations != null) {
+                annotations.forEach(annotation -> annotation.index.replaceAll(index -> index - 1));
+            }
+        }
+        method.maxLocals--;
+    }
+}
@@ -0,0 +1,38 @@
+package org.openrewrite.java.cleanup.runner;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+final class Threads {
+    private Threads() {
+    }
+
+    static ExecutorService cpu(final String name, final int threads) {
+        return Executors.newFixedThreadPool(threads, daemon(name));
+    }
+
+    /**
+     * One virtual thread per task when the runtime has them (Java 21+). The runner still targets Java 17, where
+     * I/O stages fall back to a cached pool of platform threads.
+     */
+    static ExecutorService io(final String name) {
+        try {
+            final Method virtual = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) virtual.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(daemon(name));
+        }
+    }
+
+    static ThreadFactory daemon(final String name) {
+        final AtomicInteger n = new AtomicInteger();
+        return r -> {
+            final Thread t = new Thread(r, "rewrite-" + name + "-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
@@ -0,0 +1,273 @@
+package org.openrewrite.java.cleanup.runner;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerBuilder;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerModifier;
+import com.fasterxml.jackson.databind.deser.ValueInstantiator;
+import com.fasterxml.jackson.databind.deser.std.FromStringDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.Parser;
+import org.openrewrite.SourceFile;
+import org.openrewrite.Tree;
+import org.openrewrite.internal.lang.Nullable;
+import org.openrewrite.java.cleanup.MethodNotAccessingInstanceDataShouldBeStatic;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.JavaType;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.CodeSource;
+import java.security.NoSuchAlgorithmException;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Parsed compilation units on disk, so that a later run over unchanged sources skips parsing. Trees are cached per
+ * parse batch, because the attribution of a file depends on the files parsed with it, under a hash of the contents
+ * and paths of every file in the batch, of the classpath, and of the versions of rewrite and of the recipe that made
+ * them. An entry is a deflated Smile document of the batch's compilation units, their type attribution, their file
+ * attributes and their markers.
+ */
+final class TreeCache {
+    private static final int FORMAT = 2;
+
+    private final Path directory;
+    private final byte[] classpathDigest;
+    private final ObjectMapper mapper = newMapper();
+
+    TreeCache(final Path directory, final List<Path> classpath) throws IOException {
+        this.directory = directory;
+        final MessageDigest digest = sha256();
+        for (Path entry : classpath) {
+            update(digest, entry);
+        }
+        // Trees written by another parser, or read by another recipe, may no longer match what this run would make.
+        for (Class<?> type : List.of(Tree.class, J.class, MethodNotAccessingInstanceDataShouldBeStatic.class)) {
+            updateVersion(digest, type);
+        }
+        this.classpathDigest = digest.digest();
+    }
+
+    String key(final Path root, final List<Parser.Input> inputs, final ExecutionContext ctx) throws IOException {
+        final MessageDigest digest = sha256();
+        digest.update(longBytes(FORMAT));
+        digest.update(classpathDigest);
+        for (Parser.Input input : inputs) {
+            digest.update(input.getRelativePath(root).toString().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            try (InputStream source = input.getSource(ctx)) {
+                digest.update(source.readAllBytes());
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static void update(final MessageDigest digest, final Path entry) throws IOException {
+        digest.update(entry.toAbsolutePath().toString().getBytes(StandardCharsets.UTF_8));
+        if (Files.exists(entry)) {
+            digest.update(longBytes(Files.size(entry)));
+            digest.update(longBytes(Files.getLastModifiedTime(entry).toMillis()));
+        }
+    }
+
+    /**
+     * A released jar names its version in its manifest. Classes without one, such as a snapshot of the recipe built
+     * into a directory, are told apart by where they were loaded from and when that changed.
+     */
+    private static void updateVersion(final MessageDigest digest, final Class<?> type) throws IOException {
+        digest.update(type.getName().getBytes(StandardCharsets.UTF_8));
+        final String version = type.getPackage() == null ? null : type.getPackage().getImplementationVersion();
+        if (version != null) {
+            digest.update(version.getBytes(StandardCharsets.UTF_8));
+        }
+
+        final CodeSource codeSource = type.getProtectionDomain().getCodeSource();
+        if (codeSource != null && codeSource.getLocation() != null) {
+            try {
+                final Path location = Paths.get(codeSource.getLocation().toURI());
+                update(digest, Files.isDirectory(location) ? location.resolve(classFile(type)) : location);
+            } catch (URISyntaxException | IllegalArgumentException e) {
+                digest.update(codeSource.getLocation().toString().getBytes(StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    private static String classFile(final Class<?> type) {
+        return type.getName().replace('.', '/') + ".class";
+    }
+
+    /**
+     * @return the trees of the batch, or null if the cache has no entry for it.
+     */
+    @Nullable
+    List<SourceFile> load(final String key) throws IOException {
+        final Path entry = directory.resolve(key + ".lst");
+        if (!Files.exists(entry)) {
+            return null;
+        }
+
+        try (InputStream in = new InflaterInputStream(new BufferedInputStream(Files.newInputStream(entry)))) {
+            return new ArrayList<>(Arrays.asList(mapper.readValue(in, J.CompilationUnit[].class)));
+        }
+    }
+
+    void store(final String key, final List<SourceFile> sourceFiles) throws IOException {
+        final List<J.CompilationUnit> cus = new ArrayList<>(sourceFiles.size());
+        for (SourceFile sourceFile : sourceFiles) {
+            if (!(sourceFile instanceof J.CompilationUnit)) {
+                return;
+            }
+            cus.add((J.CompilationUnit) sourceFile);
+        }
+
+        Files.createDirectories(directory);
+        final Path entry = directory.resolve(key + ".lst");
+        final Path temp = Files.createTempFile(directory, key, ".tmp");
+        try {
+            try (OutputStream out = new DeflaterOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)),
+                    new Deflater(Deflater.BEST_SPEED))) {
+                mapper.writeValue(out, cus.toArray(new J.CompilationUnit[0]));
+            }
+            Files.move(temp, entry, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static ObjectMapper newMapper() {
+        final ObjectMapper mapper = new ObjectMapper(new SmileFactory())
+                .registerModule(new ParameterNamesModule())
+                .registerModule(new SimpleModule()
+                        .setDeserializerModifier(new CyclicTypes())
+                        // Source paths are relative to their root, which the default URI form would not keep.
+                        .addSerializer(Path.class, new ToStringSerializer(Path.class))
+                        .addDeserializer(Path.class, new FromStringDeserializer<>(Path.class) {
+                            @Override
+                            protected Path _deserialize(final String value, final DeserializationContext ctxt) {
+                                return Paths.get(value);
+                            }
+                        })
+                        // File attributes carry their times as ISO-8601 text, without the java.time module.
+                        .addSerializer(ZonedDateTime.class, new ToStringSerializer(ZonedDateTime.class))
+                        .addDeserializer(ZonedDateTime.class, new FromStringDeserializer<>(ZonedDateTime.class) {
+                            @Override
+                            protected ZonedDateTime _deserialize(final String value,
+                                                                 final DeserializationContext ctxt) {
+                                return ZonedDateTime.parse(value);
+                            }
+                        }))
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .disable(SerializationFeature.FAIL_ON_EMPTY_BEANS)
+                .setSerializationInclusion(JsonInclude.Include.NON_NULL);
+        mapper.setVisibility(mapper.getSerializationConfig().getDefaultVisibilityChecker()
+                .withCreatorVisibility(JsonAutoDetect.Visibility.PUBLIC_ONLY)
+                .withGetterVisibility(JsonAutoDetect.Visibility.NONE)
+                .withIsGetterVisibility(JsonAutoDetect.Visibility.NONE)
+                .withFieldVisibility(JsonAutoDetect.Visibility.ANY));
+        return mapper;
+    }
+
+    /**
+     * Types refer to each other in cycles, a class to its methods and the methods back to the class, which a creator
+     * taking every property cannot resolve. Each type is therefore created through its public constructor with empty
+     * arguments and then filled in field by field, so that its id is known before its members are read. The unknown
+     * type stays a singleton.
+     */
+    private static final class CyclicTypes extends BeanDeserializerModifier {
+        @Override
+        public BeanDeserializerBuilder updateBuilder(final DeserializationConfig config,
+                                                     final BeanDescription beanDesc,
+                                                     final BeanDeserializerBuilder builder) {
+            final Class<?> type = beanDesc.getBeanClass();
+            if (!JavaType.class.isAssignableFrom(type) || type.isInterface() || type.isEnum() ||
+                Modifier.isAbstract(type.getModifiers())) {
+                return builder;
+            }
+
+            final Constructor<?> constructor = type == JavaType.Unknown.class ? null :
+                    Arrays.stream(type.getConstructors())
+                            .max(Comparator.comparingInt(Constructor::getParameterCount))
+                            .orElseThrow(() -> new IllegalStateException("No public constructor on " + type.getName()));
+            builder.setValueInstantiator(new ValueInstantiator.Base(type) {
+                @Override
+                public boolean canCreateUsingDefault() {
+                    return true;
+                }
+
+                @Override
+                public Object createUsingDefault(final DeserializationContext ctxt) throws IOException {
+                    if (constructor == null) {
+                        return JavaType.Unknown.getInstance();
+                    }
+                    try {
+                        return constructor.newInstance(emptyArguments(constructor));
+                    } catch (ReflectiveOperationException e) {
+                        throw new IOException("Cannot create " + type.getName(), e);
+                    }
+                }
+            });
+            return builder;
+        }
+
+        private static Object[] emptyArguments(final Constructor<?> constructor) {
+            final Class<?>[] parameterTypes = constructor.getParameterTypes();
+            final Object[] arguments = new Object[parameterTypes.length];
+            for (int i = 0; i < parameterTypes.length; i++) {
+                if (parameterTypes[i] == long.class) {
+                    arguments[i] = 0L;
+                } else if (parameterTypes[i] == int.class) {
+                    arguments[i] = 0;
+                } else if (parameterTypes[i] == boolean.class) {
+                    arguments[i] = false;
+                }
+            }
+            return arguments;
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] longBytes(final long value) {
+        final byte[] bytes = new byte[Long.BYTES];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) (value >>> (8 * i));
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,158 @@
+package org.openrewrite.java.cleanup.runner;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Which source file declares which types and which types they extend, from a lexical scan rather than a parse. The
+ * recipe looks at the members of a class's supertypes, so a change to a file can change the result of the files that
+ * extend one of its classes, including their nested classes. Names are matched by their simple name, which can only
+ * make the set of dependents larger than it needs to be.
+ */
+final class TypeIndex {
+    private static final Pattern COMMENTS_AND_LITERALS = Pattern.compile(
+            "//[^\\n]*|/\\*.*?\\*/|\"(?:\\\\.|[^\"\\\\\\n])*\"|'(?:\\\\.|[^'\\\\\\n])*'", Pattern.DOTALL);
+    private static final Pattern TOKEN = Pattern.compile(
+            "[\\p{javaJavaIdentifierStart}][\\p{javaJavaIdentifierPart}]*|[<>,.{;]");
+    private static final Set<String> DECLARATIONS = new HashSet<>(List.of("class", "interface", "enum", "record"));
+
+    record Scan(Set<String> declared, Set<String> supertypes) {
+    }
+
+    private final Map<Path, Scan> scans = new HashMap<>();
+    private final Map<String, Set<Path>> declaredIn = new HashMap<>();
+    private final Map<String, Set<Path>> extendedBy = new HashMap<>();
+
+    void update(final Path file) throws IOException {
+        remove(file);
+        final Scan scan = scan(Files.readString(file, StandardCharsets.ISO_8859_1));
+        scans.put(file, scan);
+        for (String name : scan.declared()) {
+            declaredIn.computeIfAbsent(name, n -> new HashSet<>()).add(file);
+        }
+        for (String name : scan.supertypes()) {
+            extendedBy.computeIfAbsent(name, n -> new HashSet<>()).add(file);
+        }
+    }
+
+    void remove(final Path file) {
+        final Scan scan = scans.remove(file);
+        if (scan != null) {
+            scan.declared().forEach(name -> removeFrom(declaredIn, name, file));
+            scan.supertypes().forEach(name -> removeFrom(extendedBy, name, file));
+        }
+    }
+
+    /**
+     * @return the changed files and every file that extends one of their types, directly or transitively.
+     */
+    Set<Path> dependents(final Set<Path> changed) {
+        final Set<Path> affected = new LinkedHashSet<>(changed);
+        final Deque<Path> pending = new ArrayDeque<>(changed);
+        while (!pending.isEmpty()) {
+            final Scan scan = scans.get(pending.poll());
+            if (scan == null) {
+                continue;
+            }
+            for (String name : scan.declared()) {
+                for (Path dependent : extendedBy.getOrDefault(name, Collections.emptySet())) {
+                    if (affected.add(dependent)) {
+                        pending.add(dependent);
+                    }
+                }
+            }
+        }
+        return affected;
+    }
+
+    /**
+     * @return the files that declare a supertype of one of the given files, directly or transitively. They are parsed
+     * alongside so that the supertypes are attributed, without being rewritten.
+     */
+    Set<Path> supertypeSources(final Set<Path> files) {
+        final Set<Path> sources = new LinkedHashSet<>();
+        final Set<Path> seen = new HashSet<>(files);
+        final Deque<Path> pending = new ArrayDeque<>(files);
+        while (!pending.isEmpty()) {
+            final Scan scan = scans.get(pending.poll());
+            if (scan == null) {
+                continue;
+            }
+            for (String name : scan.supertypes()) {
+                for (Path source : declaredIn.getOrDefault(name, Collections.emptySet())) {
+                    if (seen.add(source)) {
+                        sources.add(source);
+                        pending.add(source);
+                    }
+                }
+            }
+        }
+        return sources;
+    }
+
+    static Scan scan(final String source) {
+        final Set<String> declared = new HashSet<>();
+        final Set<String> supertypes = new HashSet<>();
+
+        final Matcher tokens = TOKEN.matcher(COMMENTS_AND_LITERALS.matcher(source).replaceAll(" "));
+        String previous = "";
+        boolean inSupertypes = false;
+        int typeArguments = 0;
+        String last = null;
+        while (tokens.find()) {
+            final String token = tokens.group();
+            if (DECLARATIONS.contains(previous) && Character.isJavaIdentifierStart(token.charAt(0))) {
+                declared.add(token);
+            }
+
+            if (token.equals("extends") || token.equals("implements")) {
+                if (inSupertypes && last != null) {
+                    supertypes.add(last);
+                }
+                inSupertypes = true;
+                typeArguments = 0;
+                last = null;
+            } else if (inSupertypes) {
+                if (token.equals("<")) {
+                    typeArguments++;
+                } else if (token.equals(">") && typeArguments > 0) {
+                    typeArguments--;
+                } else if (typeArguments == 0) {
+                    // A closing bracket here ends the bound of a type parameter, as in <T extends Base>.
+                    if (token.equals(",") || token.equals("{") || token.equals(";") || token.equals(">")) {
+                        if (last != null) {
+                            supertypes.add(last);
+                        }
+                        last = null;
+                        inSupertypes = token.equals(",");
+                    } else if (!token.equals(".")) {
+                        last = token;
+                    }
+                }
+            }
+            previous = token;
+        }
+
+        return new Scan(declared, supertypes);
+    }
+
+    private static void removeFrom(final Map<String, Set<Path>> index, final String name, final Path file) {
+        final Set<Path> files = index.get(name);
+        if (files != null && files.remove(file) && files.isEmpty()) {
+            index.remove(name);
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package org.openrewrite.java.cleanup.runner;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.openrewrite.internal.lang.Nullable;
+import org.openrewrite.java.cleanup.SupertypeMembers;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * The static members of the classes in the jars on the classpath, served to the recipe as {@link SupertypeMembers}.
+ * The table of each jar is written once to the cache directory under the SHA-256 of the jar and memory-mapped by
+ * every later run. A table holds a magic number, its version and the number of classes, then the offset of every
+ * class ordered by name, then per class its name, its static field names and the erased signatures of its static
+ * methods.
+ */
+final class TypeTable implements SupertypeMembers {
+    private static final int MAGIC = 0x52575454;
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 12;
+
+    private record Members(Set<String> fields, Set<String> methods) {
+    }
+
+    private static final Members UNKNOWN = new Members(Collections.emptySet(), Collections.emptySet());
+
+    private final List<ByteBuffer> tables;
+    private final Map<String, Members> members = new ConcurrentHashMap<>();
+
+    private TypeTable(final List<ByteBuffer> tables) {
+        this.tables = tables;
+    }
+
+    /**
+     * @return the table of the jars on the classpath, or null if there are none. Class directories are left out, as
+     * they have no checksum to key a cache entry by.
+     */
+    @Nullable
+    static TypeTable load(final List<Path> classpath, final Path cacheDirectory) throws IOException {
+        final List<ByteBuffer> tables = new ArrayList<>();
+        for (Path entry : classpath) {
+            if (Files.isRegularFile(entry) && entry.toString().endsWith(".jar")) {
+                final Path table = cacheDirectory.resolve(checksum(entry) + "-" + VERSION + ".types");
+                ByteBuffer mapped = Files.exists(table) ? map(table) : null;
+                if (mapped == null || mapped.capacity() < HEADER_BYTES || mapped.getInt(0) != MAGIC) {
+                    write(entry, table);
+                    mapped = map(table);
+                }
+                tables.add(mapped);
+            }
+        }
+        return tables.isEmpty() ? null : new TypeTable(tables);
+    }
+
+    private static ByteBuffer map(final Path table) throws IOException {
+        try (FileChannel channel = FileChannel.open(table)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    @Override
+    @Nullable
+    public Set<String> getStaticFields(final String fullyQualifiedName) {
+        final Members found = lookup(fullyQualifiedName);
+        return found == UNKNOWN ? null : found.fields();
+    }
+
+    @Override
+    @Nullable
+    public Set<String> getStaticMethods(final String fullyQualifiedName) {
+        final Members found = lookup(fullyQualifiedName);
+        return found == UNKNOWN ? null : found.methods();
+    }
+
+    private Members lookup(final String fullyQualifiedName) {
+        return members.computeIfAbsent(fullyQualifiedName, name -> {
+            for (ByteBuffer table : tables) {
+                final Members found = find(table, name);
+                if (found != null) {
+                    return found;
+                }
+            }
+            return UNKNOWN;
+        });
+    }
+
+    @Nullable
+    private static Members find(final ByteBuffer table, final String name) {
+        int low = 0;
+        int high = table.getInt(8) - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final int[] position = {table.getInt(HEADER_BYTES + 4 * mid)};
+            final int comparison = readString(table, position).compareTo(name);
+            if (comparison < 0) {
+                low = mid + 1;
+            } else if (comparison > 0) {
+                high = mid - 1;
+            } else {
+                return new Members(readStrings(table, position), readStrings(table, position));
+            }
+        }
+        return null;
+    }
+
+    private static String readString(final ByteBuffer table, final int[] position) {
+        final byte[] bytes = new byte[table.getShort(position[0]) & 0xFFFF];
+        table.get(position[0] + 2, bytes);
+        position[0] += 2 + bytes.length;
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static Set<String> readStrings(final ByteBuffer table, final int[] position) {
+        final int count = table.getShort(position[0]) & 0xFFFF;
+        position[0] += 2;
+        final Set<String> strings = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            strings.add(readString(table, position));
+        }
+        return Collections.unmodifiableSet(strings);
+    }
+
+    private static void write(final Path jar, final Path table) throws IOException {
+        final Map<String, Members> classes = new TreeMap<>();
+        try (JarFile jarFile = new JarFile(jar.toFile())) {
+            for (Enumeration<JarEntry> entries = jarFile.entries(); entries.hasMoreElements(); ) {
+                final JarEntry entry = entries.nextElement();
+                final String name = entry.getName();
+                if (name.endsWith(".class") && !name.startsWith("META-INF/") && !name.endsWith("module-info.class")) {
+                    try (InputStream in = jarFile.getInputStream(entry)) {
+                        scan(in.readAllBytes(), classes);
+                    }
+                }
+            }
+        }
+
+        final ByteArrayOutputStream entries = new ByteArrayOutputStream();
+        final DataOutputStream entriesOut = new DataOutputStream(entries);
+        final int[] offsets = new int[classes.size()];
+        final int entriesStart = HEADER_BYTES + 4 * classes.size();
+        int i = 0;
+        for (Map.Entry<String, Members> type : classes.entrySet()) {
+            offsets[i++] = entriesStart + entriesOut.size();
+            writeString(entriesOut, type.getKey());
+            writeStrings(entriesOut, type.getValue().fields());
+            writeStrings(entriesOut, type.getValue().methods());
+        }
+
+        Files.createDirectories(table.getParent());
+        final Path temp = Files.createTempFile(table.getParent(), table.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream file = new BufferedOutputStream(Files.newOutputStream(temp));
+                 DataOutputStream out = new DataOutputStream(file)) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(offsets.length);
+                for (int offset : offsets) {
+                    out.writeInt(offset);
+                }
+                entries.writeTo(out);
+            }
+            // Several worker JVMs may build the same table at once; whichever finishes last wins.
+            Files.move(temp, table, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void scan(final byte[] classFile, final Map<String, Members> classes) {
+        new ClassReader(classFile).accept(new ClassVisitor(Opcodes.ASM9) {
+            private final Members members = new Members(new HashSet<>(), new HashSet<>());
+
+            @Override
+            public void visit(final int version, final int access, final String name, final String signature,
+                              final String superName, final String[] interfaces) {
+                classes.put(name.replace('/', '.'), members);
+            }
+
+            @Override
+            public FieldVisitor visitField(final int access, final String name, final String descriptor,
+                                           final String signature, final Object value) {
+                if (isStatic(access)) {
+                    members.fields().add(name);
+                }
+                return null;
+            }
+
+            @Override
+            public MethodVisitor visitMethod(final int access, final String name, final String descriptor,
+                                             final String signature, final String[] exceptions) {
+                if (isStatic(access) && !name.equals("<clinit>")) {
+                    final StringJoiner erased = new StringJoiner(",", name + "(", ")");
+                    for (Type parameter : Type.getArgumentTypes(descriptor)) {
+                        erased.add(parameter.getClassName());
+                    }
+                    members.methods().add(erased.toString());
+                }
+                return null;
+            }
+        }, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+    }
+
+    private static boolean isStatic(final int access) {
+        return (access & Opcodes.ACC_STATIC) != 0 && (access & Opcodes.ACC_SYNTHETIC) == 0;
+    }
+
+    private static void writeString(final DataOutputStream out, final String string) throws IOException {
+        final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeStrings(final DataOutputStream out, final Set<String> strings) throws IOException {
+        out.writeShort(strings.size());
+        for (String string : strings) {
+            writeString(out, string);
+        }
+    }
+
+    private static String checksum(final Path jar) throws IOException {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+
+        try (InputStream in = Files.newInputStream(jar)) {
+            final byte[] buffer = new byte[1 << 16];
+            for (int n = in.read(buffer); n != -1; n = in.read(buffer)) {
+                digest.update(buffer, 0, n);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
@@ -0,0 +1,94 @@
+package org.openrewrite.java.cleanup.runner;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Orders the work of a run so that no core idles at the end of it. Files are cut into units of one module each,
+ * whole modules are assigned to lanes (one per parse worker) longest-processing-time first, and units are handed
+ * out largest first. Keeping a module on one worker keeps that worker's parser and type caches warm for it.
+ */
+final class WorkScheduler {
+
+    record Unit(int lane, Path root, List<Path> files, long cost) {
+    }
+
+    record Schedule(List<Unit> units, int[] unitsPerLane) {
+    }
+
+    private WorkScheduler() {
+    }
+
+    /**
+     * @param sources the files to run on, by the source root they are relative to.
+     */
+    static Schedule schedule(final Map<Path, List<Path>> sources, final int lanes, final int batchSize) {
+        final Map<String, List<Unit>> unitsByModule = new LinkedHashMap<>();
+        for (Map.Entry<Path, List<Path>> source : sources.entrySet()) {
+            final Path root = source.getKey();
+
+            final Map<String, List<Path>> filesByModule = new TreeMap<>();
+            final Map<Path, String> moduleOfPackage = new HashMap<>();
+            for (Path file : source.getValue()) {
+                final String module = moduleOfPackage.computeIfAbsent(file.getParent(),
+                        pkg -> ShardPlanner.module(root, pkg));
+                filesByModule.computeIfAbsent(module, m -> new ArrayList<>()).add(file);
+            }
+
+            for (Map.Entry<String, List<Path>> module : filesByModule.entrySet()) {
+                final List<Path> files = module.getValue();
+                files.sort(Comparator.naturalOrder());
+
+                final List<Unit> units = unitsByModule.computeIfAbsent(root + ":" + module.getKey(),
+                        m -> new ArrayList<>());
+                for (int i = 0; i < files.size(); i += batchSize) {
+                    final List<Path> unitFiles = new ArrayList<>(files.subList(i, Math.min(files.size(),
+                            i + batchSize)));
+                    long cost = 0;
+                    for (Path file : unitFiles) {
+                        cost += CostModel.estimate(file);
+                    }
+                    units.add(new Unit(-1, root, unitFiles, cost));
+                }
+            }
+        }
+
+        final List<List<Unit>> modules = new ArrayList<>(unitsByModule.values());
+        modules.sort(Comparator.comparingLong(WorkScheduler::cost).reversed());
+
+        final long[] load = new long[lanes];
+        final int[] unitsPerLane = new int[lanes];
+        final List<Unit> scheduled = new ArrayList<>();
+        for (List<Unit> module : modules) {
+            int lane = 0;
+            for (int i = 1; i < lanes; i++) {
+                if (load[i] < load[lane]) {
+                    lane = i;
+                }
+            }
+
+            load[lane] += cost(module);
+            unitsPerLane[lane] += module.size();
+            for (Unit unit : module) {
+                scheduled.add(new Unit(lane, unit.root(), unit.files(), unit.cost()));
+            }
+        }
+
+        scheduled.sort(Comparator.comparingLong(Unit::cost).reversed());
+        return new Schedule(scheduled, unitsPerLane);
+    }
+
+    private static long cost(final List<Unit> module) {
+        long cost = 0;
+        for (Unit unit : module) {
+            cost += unit.cost();
+        }
+        return cost;
+    }
+}
@@ -0,0 +1,14 @@
+package org.openrewrite.java.cleanup.runner;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Starts a worker JVM running {@link Main} with the given arguments. The worker reads its shard file and writes
+ * its result file through paths the coordinator chose in its work directory, so a launcher for other hosts needs
+ * that directory to be shared. Ending the returned process must end the worker, also on another host.
+ */
+public interface WorkerLauncher {
+
+    Process launch(List<String> workerArgs) throws IOException;
+}
@@ -0,0 +1,6 @@
+@NonNullApi
+@NonNullFields
+package org.openrewrite.java.cleanup.runner;
+
+import org.openrewrite.internal.lang.NonNullApi;
+import org.openrewrite.internal.lang.NonNullFields;
@@ -0,0 +1,116 @@
+package org.openrewrite.java.cleanup.runner;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.ToolProvider;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BytecodeScreenTest {
+    @TempDir
+    Path root;
+
+    @TempDir
+    Path classes;
+
+    @Test
+    void findsMethodsThatNeverLoadThisPerSourceFile() throws Exception {
+        final Path counter = write("a/Counter.java", """
+                package a;
+                class Counter {
+                    private int count;
+
+                    private int next() {
+                        return count + 1;
+                    }
+
+                    final class Inner {
+                        private int previous() {
+                            return next() - 1;
+                        }
+                    }
+                }
+                """);
+        final Path constant = write("a/Constant.java", """
+                package a;
+                class Constant {
+                    private final Runnable task = () -> { };
+
+                    final int value() {
+                        return 1;
+                    }
+                }
+                """);
+        final Path unknown = write("b/Unknown.java", """
+                package b;
+                class Unknown {
+                }
+                """);
+        compile(counter, constant);
+
+        final BytecodeScreen screen = BytecodeScreen.load(List.of(classes));
+
+        assertThat(screen.candidate(counter)).isFalse();
+        assertThat(screen.candidate(constant)).isTrue();
+        assertThat(screen.candidate(unknown)).isNull();
+
+        Files.setLastModifiedTime(counter, FileTime.from(Instant.now().plusSeconds(60)));
+        assertThat(screen.candidate(counter)).isNull();
+    }
+
+    @Test
+    void onlyParsesFilesWhoseClassesHaveCandidates() throws Exception {
+        final Path counter = write("a/Counter.java", """
+                package a;
+                class Counter {
+                    private int count;
+
+                    private int next() {
+                        return count + 1;
+                    }
+                }
+                """);
+        final Path constant = write("a/Constant.java", """
+                package a;
+                class Constant {
+                    private int value() {
+                        return 1;
+                    }
+                }
+                """);
+        compile(counter, constant);
+
+        final RunStats stats = new ParallelRecipeRunner(RunnerOptions.parse("--classes", classes.toString(),
+                root.toString()), System.out, System.err).run();
+
+        assertThat(stats.getFilesParsed()).isEqualTo(1);
+        assertThat(stats.getFilesScreenedOut()).isEqualTo(1);
+        assertThat(stats.getFilesChanged()).isEqualTo(1);
+        assertThat(Files.readString(constant)).contains("private static int value()");
+    }
+
+    private void compile(final Path... sources) {
+        final String[] args = new String[sources.length + 2];
+        args[0] = "-d";
+        args[1] = classes.toString();
+        for (int i = 0; i < sources.length; i++) {
+            args[i + 2] = sources[i].toString();
+        }
+        assertThat(ToolProvider.getSystemJavaCompiler().run(null, null, null, args)).isZero();
+    }
+
+    private Path write(final String relativePath, final String source) throws Exception {
+        final Path path = root.resolve(relativePath);
+        Files.createDirectories(path.getParent());
+        Files.writeString(path, source);
+        // Sources are older than what a build compiles them to.
+        Files.setLastModifiedTime(path, FileTime.from(Instant.now().minusSeconds(60)));
+        return path;
+    }
+}
@@ -0,0 +1,118 @@
+package org.openrewrite.java.cleanup.runner;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.Parser;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CandidateScreenTest {
+    private static final String RECIPE_TEST_SOURCES = "recipe.test.sources";
+
+    @TempDir
+    Path root;
+
+    @Test
+    void ignoresMethodsInCommentsStringsAndTextBlocks() {
+        final String source = """
+                class A {
+                    // private int a() {
+                    /* final void b() { */
+                    private final String c = "private int c() {";
+                    private final char d = '"';
+                    private final String e = \"""
+                            private int e() { \\\""" }
+                            \""";
+                    public static final int f() {
+                        return 1;
+                    }
+                    private A() {
+                    }
+                }
+                """;
+
+        assertThat(CandidateScreen.scan(source).candidate()).isTrue();
+        assertThat(CandidateScreen.scan(source.replace("private A()", "A()")).candidate()).isFalse();
+        assertThat(CandidateScreen.scan(source.replace("public static final int f()", "final int f()")).candidate())
+                .isTrue();
+        assertThat(CandidateScreen.scan(
+                source.replace("private A()", "A()").replace("public static", "@SuppressWarnings(\"x\") private"))
+                .candidate()).isTrue();
+    }
+
+    @Test
+    void keepsTheTypesThatCandidatesNeed() throws Exception {
+        final List<Parser.Input> inputs = List.of(
+                input("Sub.java", "class Sub extends Base { private int get() { return count; } }"),
+                input("Base.java", "class Base extends GrandBase { }"),
+                input("GrandBase.java", "class GrandBase { static int count; }"),
+                input("Unrelated.java", "class Unrelated { static int count() { return 0; } }"));
+
+        assertThat(CandidateScreen.screen(root, inputs, Set.of(root.resolve("Sub.java"),
+                root.resolve("Base.java"), root.resolve("GrandBase.java"), root.resolve("Unrelated.java")),
+                file -> false, new InMemoryExecutionContext()))
+                .extracting(input -> input.getPath().getFileName().toString())
+                .containsExactly("Sub.java", "Base.java", "GrandBase.java");
+    }
+
+    /**
+     * Runs the recipe with and without the screen on every source of the recipe's own tests.
+     */
+    @Test
+    void changesTheSameFilesAsParsingEveryFile() throws Exception {
+        final String testSources = System.getProperty(RECIPE_TEST_SOURCES);
+        assertThat(testSources).as("system property " + RECIPE_TEST_SOURCES).isNotNull();
+        final Path recipeTest = Paths.get(testSources,
+                "org/openrewrite/java/cleanup/MethodNotAccessingInstanceDataShouldBeStaticTest.java");
+        final Matcher textBlocks = Pattern.compile("\"\"\"\\n(.*?\"\"\")", Pattern.DOTALL)
+                .matcher(Files.readString(recipeTest));
+        final List<String> sources = new ArrayList<>();
+        while (textBlocks.find()) {
+            final String block = textBlocks.group(1);
+            sources.add(block.substring(0, block.length() - 3).stripIndent().translateEscapes());
+        }
+        assertThat(sources).hasSizeGreaterThan(100);
+        for (int i = 0; i < sources.size(); i++) {
+            final Path file = root.resolve("s" + i + "/Source.java");
+            Files.createDirectories(file.getParent());
+            Files.writeString(file, sources.get(i));
+        }
+
+        final ByteArrayOutputStream everyFile = new ByteArrayOutputStream();
+        new ParallelRecipeRunner(RunnerOptions.parse("--dry-run", "--no-screen", "--batch-size", "1",
+                root.toString()), new PrintStream(everyFile, true), System.err).run();
+
+        final ByteArrayOutputStream screened = new ByteArrayOutputStream();
+        final RunStats stats = new ParallelRecipeRunner(RunnerOptions.parse("--dry-run", "--batch-size", "1",
+                root.toString()), new PrintStream(screened, true), System.err).run();
+
+        assertThat(stats.getFilesScreenedOut()).isPositive();
+        assertThat(diffs(screened)).isNotEmpty().isEqualTo(diffs(everyFile));
+    }
+
+    private static List<String> diffs(final ByteArrayOutputStream out) {
+        final List<String> diffs = new ArrayList<>(List.of(out.toString().split("(?=diff --git )")));
+        diffs.removeIf(String::isEmpty);
+        diffs.sort(null);
+        return diffs;
+    }
+
+    private Parser.Input input(final String name, final String source) {
+        final byte[] bytes = source.getBytes(StandardCharsets.UTF_8);
+        return new Parser.Input(root.resolve(name), () -> new ByteArrayInputStream(bytes));
+    }
+}
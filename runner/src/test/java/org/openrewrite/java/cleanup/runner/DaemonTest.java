@@ -0,0 +1,73 @@
+package org.openrewrite.java.cleanup.runner;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DaemonTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void analyzesAndAppliesOverSocket() throws Exception {
+        final Path source = dir.resolve("A.java");
+        Files.writeString(source, """
+                class A {
+                    private String getSomething() {
+                        return "something";
+                    }
+                }
+                """);
+        final Path socket = dir.resolve("daemon.sock");
+
+        final Daemon daemon = new Daemon(RunnerOptions.parse("--threads", "1"), socket, System.err);
+        final CompletableFuture<Void> serving = CompletableFuture.runAsync(() -> {
+            try {
+                daemon.serve();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        // The socket file appears when it is bound, just before the daemon starts listening on it.
+        while (!Files.exists(socket) || !pings()) {
+            assertThat(serving).isNotDone();
+            Thread.sleep(50);
+        }
+
+        final ByteArrayOutputStream diff = new ByteArrayOutputStream();
+        assertThat(send("analyze", List.of(source), diff)).isZero();
+        assertThat(diff.toString()).contains("+    private static String getSomething() {");
+        assertThat(Files.readString(source)).doesNotContain("static");
+
+        assertThat(send("apply", List.of(source), new ByteArrayOutputStream())).isZero();
+        assertThat(Files.readString(source)).contains("private static String getSomething()");
+
+        assertThat(send("shutdown", List.of(), new ByteArrayOutputStream())).isZero();
+        serving.get(10, TimeUnit.SECONDS);
+        assertThat(socket).doesNotExist();
+    }
+
+    private boolean pings() {
+        try {
+            return send("ping", List.of(), new ByteArrayOutputStream()) == 0;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private int send(final String command, final List<Path> files, final ByteArrayOutputStream out)
+            throws Exception {
+        return DaemonClient.send(dir.resolve("daemon.sock"), command, dir, files, new PrintStream(out, true),
+                System.err);
+    }
+}
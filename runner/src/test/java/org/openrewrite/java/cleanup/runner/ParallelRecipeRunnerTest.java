@@ -0,0 +1,433 @@
+package org.openrewrite.java.cleanup.runner;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.PrintStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ParallelRecipeRunnerTest {
+    @TempDir
+    Path root;
+
+    @Test
+    void rewritesSourceTreeInPlace() throws Exception {
+        write("a/A.java", """
+                package a;
+                class A {
+                    private static String staticVariable = "something";
+
+                    private String getSomething() {
+                        return staticVariable;
+                    }
+                }
+                """);
+        write("b/B.java", """
+                package b;
+                class B {
+                    private String instanceVariable = "anything";
+
+                    private String getSomething() {
+                        return instanceVariable;
+                    }
+                }
+                """);
+
+        final RunStats stats = run("--threads", "2", "--batch-size", "1", root.toString());
+
+        assertThat(stats.getFilesParsed()).isEqualTo(2);
+        assertThat(stats.getFilesChanged()).isEqualTo(1);
+        assertThat(Files.readString(root.resolve("a/A.java"))).contains("private static String getSomething()");
+        assertThat(Files.readString(root.resolve("b/B.java"))).contains("private String getSomething()");
+    }
+
+    @Test
+    void replacesSourcesAtomicallyKeepingTheirPermissions() throws Exception {
+        write("a/A.java", """
+                package a;
+                class A {
+                    private int next() {
+                        return 1;
+                    }
+                }
+                """);
+        final Set<PosixFilePermission> permissions = PosixFilePermissions.fromString("rw-r-----");
+        Files.setPosixFilePermissions(root.resolve("a/A.java"), permissions);
+
+        final RunStats stats = run("--fsync", "--write-threads", "1", root.toString());
+
+        assertThat(stats.getFilesChanged()).isEqualTo(1);
+        assertThat(Files.readString(root.resolve("a/A.java"))).contains("private static int next()");
+        assertThat(Files.getPosixFilePermissions(root.resolve("a/A.java"))).isEqualTo(permissions);
+        try (Stream<Path> files = Files.list(root.resolve("a"))) {
+            assertThat(files).containsExactly(root.resolve("a/A.java"));
+        }
+    }
+
+    @Test
+    void dryRunPrintsDiffWithoutWriting() throws Exception {
+        final String source = """
+                class A {
+                    public final String getSomething() {
+                        return "something";
+                    }
+                }
+                """;
+        write("A.java", source);
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new ParallelRecipeRunner(RunnerOptions.parse("--dry-run", root.toString()), new PrintStream(out, true),
+                System.err).run();
+
+        assertThat(out.toString()).contains("+    public static String getSomething() {");
+        assertThat(Files.readString(root.resolve("A.java"))).isEqualTo(source);
+    }
+
+    @Test
+    void printsOneJsonLinePerChangedFileWithPathsRelativeToWorkingDirectory() throws Exception {
+        write("a/A.java", """
+                package a;
+                class A {
+                    private int next() {
+                        return 1;
+                    }
+                }
+                """);
+        write("b/B.java", """
+                package b;
+                class B {
+                    private int value;
+
+                    private int value() {
+                        return value;
+                    }
+                }
+                """);
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new ParallelRecipeRunner(RunnerOptions.parse("--dry-run", "--format", "jsonl", root.toString()),
+                new PrintStream(out, true), System.err).run();
+
+        final String path = Paths.get("").toAbsolutePath().relativize(root.resolve("a/A.java")).toString();
+        final List<String> lines = out.toString().lines().toList();
+        assertThat(lines).hasSize(1);
+        final JsonNode line = new ObjectMapper().readTree(lines.get(0));
+        assertThat(line.get("path").asText()).isEqualTo(path);
+        assertThat(line.get("diff").asText())
+                .startsWith("diff --git a/" + path + " b/" + path + "\n")
+                .contains("+    private static int next() {");
+    }
+
+    @Test
+    void parsesBatchesWithTheSourcesOfSupertypesInOtherBatches() throws Exception {
+        write("a/Base.java", """
+                package a;
+                public class Base {
+                    protected static int count;
+                }
+                """);
+        final String sub = """
+                package b;
+                class Sub extends a.Base {
+                    private int next() {
+                        return count + 1;
+                    }
+                }
+                """;
+        write("b/Sub.java", sub);
+
+        // Parsed on its own, Sub cannot tell where count is declared.
+        run("--threads", "1", "--batch-size", "1", root.toString());
+        assertThat(Files.readString(root.resolve("b/Sub.java"))).isEqualTo(sub);
+
+        final RunStats withSupertypes = run("--threads", "1", "--batch-size", "1", "--supertype-sources",
+                root.toString());
+        assertThat(withSupertypes.getFilesChanged()).isEqualTo(1);
+        assertThat(Files.readString(root.resolve("b/Sub.java"))).contains("private static int next()");
+    }
+
+    @Test
+    void judgesNamesByTheirFileWithoutAClasspath() throws Exception {
+        write("a/Service.java", """
+                package a;
+                class Service extends lib.Missing {
+                    private static final int RETRIES = 3;
+
+                    private int retries() {
+                        return RETRIES;
+                    }
+
+                    private int timeout() {
+                        return defaultTimeout;
+                    }
+                }
+                """);
+
+        final RunStats stats = run("--threads", "1", "--name-based", root.toString());
+
+        assertThat(stats.getFilesChanged()).isEqualTo(1);
+        assertThat(Files.readString(root.resolve("a/Service.java")))
+                .contains("private static int retries()")
+                .contains("private int timeout()");
+        assertThatThrownBy(() -> RunnerOptions.parse("--name-based", "--classpath", "lib.jar"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void summarizesRecipeLatenciesAcrossWorkerResults() throws Exception {
+        write("a/A.java", """
+                package a;
+                class A {
+                    private int one() {
+                        return 1;
+                    }
+
+                    private int two() {
+                        return 2;
+                    }
+                }
+                """);
+
+        final RunStats stats = run("--threads", "1", "--slow-file", "60000", root.toString());
+
+        assertThat(stats.getFileLatencies().getTotalCount()).isPositive();
+        assertThat(stats.getMethodLatencies().getTotalCount()).isGreaterThanOrEqualTo(2);
+
+        final ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        stats.writeTo(new DataOutputStream(encoded));
+        final RunStats coordinator = new RunStats();
+        coordinator.mergeFrom(new DataInputStream(new ByteArrayInputStream(encoded.toByteArray())));
+        assertThat(coordinator.getMethodLatencies().getTotalCount())
+                .isEqualTo(stats.getMethodLatencies().getTotalCount());
+        assertThat(coordinator.getFileLatencies().getMaxValue())
+                .isEqualTo(stats.getFileLatencies().getMaxValue());
+
+        final ByteArrayOutputStream printed = new ByteArrayOutputStream();
+        coordinator.print(new PrintStream(printed, true));
+        assertThat(printed.toString()).contains("Recipe latency per file (", "Recipe latency per method (", "p99");
+    }
+
+    @Test
+    void explainPrintsMarkedMethodsWithoutWritingThem() throws Exception {
+        final String source = """
+                package a;
+                class A {
+                    private int value;
+
+                    private int next() {
+                        return 1;
+                    }
+
+                    private int value() {
+                        return value;
+                    }
+                }
+                """;
+        write("a/A.java", source);
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final RunStats stats = new ParallelRecipeRunner(RunnerOptions.parse("--explain", root.toString()),
+                new PrintStream(out, true), System.err).run();
+
+        assertThat(stats.getFilesChanged()).isEqualTo(1);
+        assertThat(out.toString())
+                .contains("+    /*~~>*/private int next() {")
+                .contains("+    /*~~(uses instance field value)~~>*/private int value() {")
+                .doesNotContain("static");
+        assertThat(Files.readString(root.resolve("a/A.java"))).isEqualTo(source);
+        assertThatThrownBy(() -> RunnerOptions.parse("--search", "--daemon"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void failsOnlyTheFilesThatCannotBeRead() throws Exception {
+        write("a/A.java", """
+                package a;
+                class A {
+                    private int one() {
+                        return 1;
+                    }
+                }
+                """);
+        final Path a = root.resolve("a/A.java");
+        final Path deleted = root.resolve("a/Deleted.java");
+
+        final RunStats stats = new ParallelRecipeRunner(RunnerOptions.parse("--threads", "1"), System.out, System.err)
+                .run(new Shard(0, root, "", List.of(a, deleted)));
+
+        assertThat(stats.getParseErrors()).isEqualTo(1);
+        assertThat(stats.getFilesChanged()).isEqualTo(1);
+        assertThat(Files.readString(a)).contains("private static int one()");
+    }
+
+    @Test
+    void resumesFromJournalWithTheOutputOfAnUninterruptedRun(@TempDir final Path state) throws Exception {
+        for (String name : List.of("A", "B", "C")) {
+            write(name + ".java", """
+                    class %s {
+                        private int next() {
+                            return 1;
+                        }
+                    }
+                    """.formatted(name));
+        }
+        final Path journal = state.resolve("run.journal");
+        final String[] args = {"--dry-run", "--format", "jsonl", "--threads", "1", "--batch-size", "1",
+                "--journal", journal.toString(), root.toString()};
+
+        final ByteArrayOutputStream uninterrupted = new ByteArrayOutputStream();
+        new ParallelRecipeRunner(RunnerOptions.parse(args), new PrintStream(uninterrupted, true), System.err).run();
+
+        // Tear the last entry, as if the run had been killed while appending it.
+        try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 5);
+        }
+
+        final ByteArrayOutputStream resumed = new ByteArrayOutputStream();
+        final RunStats stats = new ParallelRecipeRunner(RunnerOptions.parse(args), new PrintStream(resumed, true),
+                System.err).run();
+
+        assertThat(stats.getFilesResumed()).isEqualTo(2);
+        assertThat(stats.getFilesParsed()).isEqualTo(1);
+        assertThat(resumed.toString().lines().sorted().toList())
+                .hasSize(3)
+                .isEqualTo(uninterrupted.toString().lines().sorted().toList());
+    }
+
+    @Test
+    void resumesWithoutRecordingFilesThatFailed(@TempDir final Path state) throws Exception {
+        write("A.java", """
+                class A {
+                    private int next() {
+                        return 1;
+                    }
+                }
+                """);
+        // The parser drops the first, and the recipe throws on the second, which parses with an erroneous tree.
+        write("Unparsable.java", """
+                class Unparsable {
+                    @ private void next() {
+                    }
+                }
+                """);
+        write("Erroneous.java", """
+                class Erroneous {
+                    private int next() {
+                        return 1 +;
+                    }
+                }
+                """);
+        final Path journal = state.resolve("run.journal");
+        final String[] args = {"--dry-run", "--threads", "1", "--batch-size", "1", "--journal", journal.toString(),
+                root.toString()};
+
+        final ByteArrayOutputStream uninterrupted = new ByteArrayOutputStream();
+        final RunStats first = new ParallelRecipeRunner(RunnerOptions.parse(args),
+                new PrintStream(uninterrupted, true), System.err).run();
+        assertThat(first.getParseErrors()).isEqualTo(1);
+
+        final ByteArrayOutputStream resumed = new ByteArrayOutputStream();
+        final RunStats stats = new ParallelRecipeRunner(RunnerOptions.parse(args), new PrintStream(resumed, true),
+                System.err).run();
+
+        assertThat(stats.getFilesResumed()).isEqualTo(1);
+        assertThat(stats.getParseErrors()).isEqualTo(1);
+        assertThat(resumed.toString()).isEqualTo(uninterrupted.toString()).contains("private static int next()");
+    }
+
+    @Test
+    void startsOverWhenTheJournalIsFromARunWithOtherOptions(@TempDir final Path state) throws Exception {
+        write("A.java", """
+                class A {
+                    private int next() {
+                        return 1;
+                    }
+                }
+                """);
+        final Path journal = state.resolve("run.journal");
+        new ParallelRecipeRunner(RunnerOptions.parse("--dry-run", "--journal", journal.toString(), root.toString()),
+                new PrintStream(new ByteArrayOutputStream(), true), System.err).run();
+
+        final ByteArrayOutputStream err = new ByteArrayOutputStream();
+        final RunStats stats = new ParallelRecipeRunner(RunnerOptions.parse("--dry-run", "--supertype-sources",
+                "--journal", journal.toString(), root.toString()), new PrintStream(new ByteArrayOutputStream(), true),
+                new PrintStream(err, true)).run();
+
+        assertThat(stats.getFilesResumed()).isZero();
+        assertThat(stats.getFilesParsed()).isEqualTo(1);
+        assertThat(err.toString()).contains("is from a run with other options");
+    }
+
+    @Test
+    void reusesCachedTreesWhileSourcesAreUnchanged(@TempDir final Path cache) throws Exception {
+        write("a/A.java", """
+                package a;
+                class A {
+                    private int count;
+
+                    private int next() {
+                        return 1;
+                    }
+                }
+                """);
+        write("b/B.java", """
+                package b;
+                class B extends a.A {
+                    private int previous() {
+                        return 0;
+                    }
+                }
+                """);
+
+        final String[] args = {"--dry-run", "--tree-cache", cache.toString(), root.toString()};
+        final ByteArrayOutputStream first = new ByteArrayOutputStream();
+        final RunStats parsed = new ParallelRecipeRunner(RunnerOptions.parse(args), new PrintStream(first, true),
+                System.err).run();
+        assertThat(parsed.getFilesParsed()).isEqualTo(2);
+        assertThat(parsed.getFilesFromCache()).isZero();
+
+        final ByteArrayOutputStream second = new ByteArrayOutputStream();
+        final RunStats cached = new ParallelRecipeRunner(RunnerOptions.parse(args), new PrintStream(second, true),
+                System.err).run();
+        assertThat(cached.getFilesParsed()).isZero();
+        assertThat(cached.getFilesFromCache()).isEqualTo(2);
+        assertThat(second.toString()).isEqualTo(first.toString()).contains("+    private static int next() {");
+
+        write("a/A.java", """
+                package a;
+                class A {
+                    private int count;
+                }
+                """);
+        final RunStats changed = new ParallelRecipeRunner(RunnerOptions.parse(args), System.out, System.err).run();
+        assertThat(changed.getFilesParsed()).isEqualTo(2);
+    }
+
+    private RunStats run(final String... args) throws Exception {
+        return new ParallelRecipeRunner(RunnerOptions.parse(args), System.out, System.err).run();
+    }
+
+    private void write(final String relativePath, final String source) throws Exception {
+        final Path path = root.resolve(relativePath);
+        Files.createDirectories(path.getParent());
+        Files.writeString(path, source);
+    }
+}
@@ -0,0 +1,75 @@
+package org.openrewrite.java.cleanup.runner;
+
+import org.openrewrite.Parser;
+import org.openrewrite.SourceFile;
+import org.openrewrite.java.JavaParser;
+
+import java.io.ByteArrayInputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Measures the throughput of parsing and analyzing many small files with a parser that is reset between batches,
+ * as the runner does, against building a new parser for every batch. Run with
+ * {@code mvn -f runner/pom.xml test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=org.openrewrite.java.cleanup.runner.ParserReuseBenchmark -Dexec.args="20000 64"}.
+ */
+public final class ParserReuseBenchmark {
+    private ParserReuseBenchmark() {
+    }
+
+    public static void main(final String[] args) {
+        final int files = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        final int batchSize = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        final List<Parser.Input> inputs = sources(files);
+
+        final PrintStream err = System.err;
+        final AnalysisEngine engine = new AnalysisEngine(RunnerOptions.parse("--no-type-cache"), err);
+
+        // Warm both paths up once before measuring either.
+        run(engine, inputs.subList(0, Math.min(inputs.size(), 10 * batchSize)), batchSize, engine::newParser);
+
+        final JavaParser reused = engine.newParser();
+        report("new parser per batch", run(engine, inputs, batchSize, engine::newParser), files);
+        report("reused parser", run(engine, inputs, batchSize, () -> reused), files);
+    }
+
+    private static long run(final AnalysisEngine engine, final List<Parser.Input> inputs, final int batchSize,
+                            final Supplier<JavaParser> parsers) {
+        final long start = System.nanoTime();
+        for (int i = 0; i < inputs.size(); i += batchSize) {
+            final List<SourceFile> sourceFiles = engine.parse(parsers.get(), Paths.get(""),
+                    inputs.subList(i, Math.min(inputs.size(), i + batchSize)), new RunStats());
+            engine.analyze(sourceFiles, new RunStats());
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static void report(final String label, final long nanos, final int files) {
+        System.out.printf("%-22s %8.0f files/s (%d ms)%n", label, files / (nanos / 1e9), nanos / 1_000_000);
+    }
+
+    private static List<Parser.Input> sources(final int files) {
+        final List<Parser.Input> inputs = new ArrayList<>(files);
+        for (int i = 0; i < files; i++) {
+            final byte[] source = ("package p" + (i / 100) + ";\n" +
+                    "class C" + i + " {\n" +
+                    "    private static int counter;\n" +
+                    "    private int value;\n" +
+                    "    private int next() {\n" +
+                    "        return counter + 1;\n" +
+                    "    }\n" +
+                    "    private int value() {\n" +
+                    "        return value;\n" +
+                    "    }\n" +
+                    "}\n").getBytes(StandardCharsets.UTF_8);
+            inputs.add(new Parser.Input(Paths.get("p" + (i / 100), "C" + i + ".java"),
+                    () -> new ByteArrayInputStream(source)));
+        }
+        return inputs;
+    }
+}
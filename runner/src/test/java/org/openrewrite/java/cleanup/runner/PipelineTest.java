@@ -0,0 +1,75 @@
+package org.openrewrite.java.cleanup.runner;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PipelineTest {
+
+    @Test
+    void drainsEveryStage() throws Exception {
+        final List<Integer> sunk = new CopyOnWriteArrayList<>();
+
+        try (Pipeline pipeline = new Pipeline(2)) {
+            final Channel<Integer> numbers = pipeline.source("numbers", next -> {
+                for (int i = 0; i < 100; i++) {
+                    next.put(i);
+                }
+            });
+            final Channel<Integer> doubled = pipeline.cpu("double", numbers, 3, (n, next) -> next.put(n * 2));
+            pipeline.sink("sink", doubled, 2, sunk::add);
+            pipeline.await();
+        }
+
+        assertThat(sunk).hasSize(100).allMatch(n -> n % 2 == 0);
+    }
+
+    @Test
+    void boundedChannelsHoldBackTheSource() throws Exception {
+        final AtomicInteger produced = new AtomicInteger();
+        final AtomicInteger maxAhead = new AtomicInteger();
+        final AtomicInteger consumed = new AtomicInteger();
+
+        try (Pipeline pipeline = new Pipeline(1)) {
+            final Channel<Integer> numbers = pipeline.source("numbers", next -> {
+                for (int i = 0; i < 20; i++) {
+                    next.put(i);
+                    produced.incrementAndGet();
+                }
+            });
+            pipeline.sink("slow", numbers, 1, n -> {
+                maxAhead.accumulateAndGet(produced.get() - consumed.get(), Math::max);
+                Thread.sleep(5);
+                consumed.incrementAndGet();
+            });
+            pipeline.await();
+        }
+
+        assertThat(consumed.get()).isEqualTo(20);
+        assertThat(maxAhead.get()).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void rethrowsFirstStageFailure() {
+        assertThatThrownBy(() -> {
+            try (Pipeline pipeline = new Pipeline(1)) {
+                final Channel<Integer> numbers = pipeline.source("numbers", next -> {
+                    for (int i = 0; ; i++) {
+                        next.put(i);
+                    }
+                });
+                pipeline.sink("failing", numbers, 1, n -> {
+                    if (n == 10) {
+                        throw new IllegalStateException("boom");
+                    }
+                });
+                pipeline.await();
+            }
+        }).isInstanceOf(IllegalStateException.class).hasMessage("boom");
+    }
+}
@@ -0,0 +1,171 @@
+package org.openrewrite.java.cleanup.runner;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ShardCoordinatorTest {
+    @TempDir
+    Path root;
+
+    @Test
+    void mergesWorkerResultsAndRetriesFailedShards() throws Exception {
+        write("a/A.java", """
+                package a;
+                class A {
+                    private String getSomething() {
+                        return "something";
+                    }
+                }
+                """);
+        write("b/B.java", """
+                package b;
+                class B {
+                    public final int answer() {
+                        return 42;
+                    }
+                }
+                """);
+
+        final JvmWorkerLauncher local = new JvmWorkerLauncher(Collections.emptyList(), List.of("-Xmx256m"));
+        final AtomicInteger launches = new AtomicInteger();
+        final WorkerLauncher failingOnce = args -> {
+            if (launches.incrementAndGet() == 1) {
+                // Point the first worker at a shard file that does not exist, so that it exits with an error.
+                final List<String> broken = new ArrayList<>(args);
+                broken.set(broken.indexOf("--worker-shard") + 1, root.resolve("missing.txt").toString());
+                return local.launch(broken);
+            }
+            return local.launch(args);
+        };
+
+        final RunnerOptions options = RunnerOptions.parse("--workers", "1", "--shard-size", "1", "--threads", "1",
+                root.toString());
+        final RunStats stats = new ShardCoordinator(options, List.of(failingOnce), System.out, System.err).run();
+
+        assertThat(launches.get()).isEqualTo(3);
+        assertThat(stats.getShardsFailed()).isZero();
+        assertThat(stats.getFilesParsed()).isEqualTo(2);
+        assertThat(stats.getFilesChanged()).isEqualTo(2);
+        assertThat(Files.readString(root.resolve("a/A.java"))).contains("private static String getSomething()");
+        assertThat(Files.readString(root.resolve("b/B.java"))).contains("public static int answer()");
+    }
+
+    @Test
+    void killsWorkersThatHangAndRetriesTheirShard() throws Exception {
+        write("a/A.java", """
+                package a;
+                class A {
+                    private int one() {
+                        return 1;
+                    }
+                }
+                """);
+
+        final JvmWorkerLauncher local = new JvmWorkerLauncher(Collections.emptyList(), List.of("-Xmx256m"));
+        final List<Process> hung = new ArrayList<>();
+        final WorkerLauncher hangingOnce = args -> {
+            if (hung.isEmpty()) {
+                final Process process = new ProcessBuilder("sleep", "600").start();
+                hung.add(process);
+                return process;
+            }
+            return local.launch(args);
+        };
+
+        // Long enough for a real worker to start and run, far shorter than the hung one would take.
+        final RunnerOptions options = RunnerOptions.parse("--workers", "1", "--threads", "1", "--worker-timeout",
+                "20", root.toString());
+        final RunStats stats = new ShardCoordinator(options, List.of(hangingOnce), System.out, System.err).run();
+
+        assertThat(hung.get(0).isAlive()).isFalse();
+        assertThat(stats.getShardsFailed()).isZero();
+        assertThat(Files.readString(root.resolve("a/A.java"))).contains("private static int one()");
+    }
+
+    @Test
+    void runsWorkersThroughAPrefixCommandInTheWorkDirectory() throws Exception {
+        // A shell stands in for ssh: both run their last argument as a shell command line.
+        final Path sources = root.resolve("it's a module");
+        Files.createDirectories(sources.resolve("a"));
+        Files.writeString(sources.resolve("a/A.java"), """
+                package a;
+                class A {
+                    private int one() {
+                        return 1;
+                    }
+                }
+                """);
+        final Path workDir = root.resolve("shared work");
+
+        final RunnerOptions options = RunnerOptions.parse("--workers", "1", "--threads", "1", "--worker-prefix",
+                "sh -c", "--work-dir", workDir.toString(), sources.toString());
+        final JvmWorkerLauncher remote = new JvmWorkerLauncher(options.getWorkerPrefixes().get(0), List.of("-Xmx256m"));
+        final RunStats stats = new ShardCoordinator(options, List.of(remote), System.out, System.err).run();
+
+        assertThat(stats.getShardsFailed()).isZero();
+        assertThat(Files.readString(sources.resolve("a/A.java"))).contains("private static int one()");
+        try (Stream<Path> left = Files.list(workDir)) {
+            assertThat(left).isEmpty();
+        }
+    }
+
+    @Test
+    void killsTheWorkerBehindAPrefixCommandWithIt() throws Exception {
+        final Path pidFile = root.resolve("worker.pid");
+        final Path java = root.resolve("java");
+        Files.writeString(java, "#!/bin/sh\necho $$ > '" + pidFile + "'\nexec sleep 600\n");
+        assertThat(java.toFile().setExecutable(true)).isTrue();
+
+        final JvmWorkerLauncher remote = new JvmWorkerLauncher(List.of("sh", "-c"), List.of(), java.toString(),
+                "unused");
+        final Process prefix = remote.launch(List.of());
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(20);
+        while (!Files.exists(pidFile) || Files.readString(pidFile).isBlank()) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(50);
+        }
+        final long pid = Long.parseLong(Files.readString(pidFile).trim());
+        try {
+            assertThat(ProcessHandle.of(pid).map(ProcessHandle::isAlive)).contains(true);
+
+            prefix.destroyForcibly().waitFor();
+            while (ProcessHandle.of(pid).map(ProcessHandle::isAlive).orElse(false)) {
+                assertThat(System.nanoTime()).isLessThan(deadline);
+                Thread.sleep(50);
+            }
+        } finally {
+            ProcessHandle.of(pid).ifPresent(ProcessHandle::destroyForcibly);
+        }
+    }
+
+    @Test
+    void quotesTheCommandLineOfAPrefixCommand() {
+        final JvmWorkerLauncher remote = new JvmWorkerLauncher(List.of("ssh", "host-2"), List.of("-Xmx1g"),
+                "/opt/jdk 17/bin/java", "/opt/runner/runner.jar");
+
+        final List<String> command = remote.command(List.of("--worker-shard", "/shared/it's/shard-1.txt"));
+
+        assertThat(command).hasSize(3).startsWith("ssh", "host-2");
+        assertThat(command.get(2)).contains("'/opt/jdk 17/bin/java' '-Xmx1g' '-cp' '/opt/runner/runner.jar' '" +
+                Main.class.getName() + "' '--worker-shard' '/shared/it'\\''s/shard-1.txt'");
+        assertThat(new JvmWorkerLauncher(List.of(), List.of(), "java", "runner.jar").command(List.of("--x")))
+                .containsExactly("java", "-cp", "runner.jar", Main.class.getName(), "--x");
+    }
+
+    private void write(final String relativePath, final String source) throws Exception {
+        final Path path = root.resolve(relativePath);
+        Files.createDirectories(path.getParent());
+        Files.writeString(path, source);
+    }
+}
@@ -0,0 +1,61 @@
+package org.openrewrite.java.cleanup.runner;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ShardPlannerTest {
+    @TempDir
+    Path root;
+
+    @Test
+    void shardsNeverSpanModules() throws Exception {
+        touch("app/pom.xml");
+        touch("app/src/main/java/a/A1.java");
+        touch("app/src/main/java/a/A2.java");
+        touch("lib/build.gradle");
+        touch("lib/src/main/java/b/B1.java");
+
+        final List<Shard> shards = ShardPlanner.plan(List.of(root), 10);
+
+        assertThat(shards).extracting(Shard::module).containsExactly("app", "lib");
+        assertThat(shards.get(0).files()).hasSize(2);
+        assertThat(shards.get(1).files()).hasSize(1);
+    }
+
+    @Test
+    void keepsPackagesTogetherUntilShardIsFull() throws Exception {
+        touch("a/A1.java");
+        touch("a/A2.java");
+        touch("b/B1.java");
+        touch("b/B2.java");
+        touch("c/C1.java");
+        touch("c/C2.java");
+        touch("c/C3.java");
+
+        final List<Shard> shards = ShardPlanner.plan(List.of(root), 4);
+
+        assertThat(shards).extracting(s -> s.files().size()).containsExactly(4, 3);
+        assertThat(shards.get(1).files()).allMatch(f -> f.getParent().endsWith("c"));
+    }
+
+    @Test
+    void splitsPackagesLargerThanAShard() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            touch("a/A" + i + ".java");
+        }
+
+        assertThat(ShardPlanner.plan(List.of(root), 2)).extracting(s -> s.files().size()).containsExactly(2, 2, 1);
+    }
+
+    private void touch(final String relativePath) throws Exception {
+        final Path path = root.resolve(relativePath);
+        Files.createDirectories(path.getParent());
+        Files.writeString(path, "");
+    }
+}
@@ -0,0 +1,166 @@
+package org.openrewrite.java.cleanup.runner;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SourceWatcherTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void scansDeclaredTypesAndSupertypes() {
+        final TypeIndex.Scan scan = TypeIndex.scan("""
+                // class Commented extends Nothing
+                class A<T extends Bound> extends p.Base<String> implements Runnable, Comparable<A<T>> {
+                    static class Inner extends Outer.Nested {
+                        String s = "class Quoted extends Nothing {";
+                    }
+                }
+                """);
+
+        assertThat(scan.declared()).containsExactlyInAnyOrder("A", "Inner");
+        assertThat(scan.supertypes()).containsExactlyInAnyOrder("Bound", "Base", "Runnable", "Comparable", "Nested");
+    }
+
+    @Test
+    void dependentsIncludeSubclassesTransitively() throws Exception {
+        final Path base = write("Base.java", "class Base {}");
+        final Path middle = write("Middle.java", "class Middle extends Base {}");
+        final Path leaf = write("Leaf.java", "class Leaf { static class Inner extends Middle {} }");
+        final Path unrelated = write("Unrelated.java", "class Unrelated {}");
+
+        final TypeIndex index = new TypeIndex();
+        for (Path file : new Path[]{base, middle, leaf, unrelated}) {
+            index.update(file);
+        }
+
+        assertThat(index.dependents(Set.of(base))).containsExactlyInAnyOrder(base, middle, leaf);
+        assertThat(index.supertypeSources(Set.of(leaf))).containsExactly(middle, base);
+    }
+
+    @Test
+    void rerunsSubclassesWhenSuperclassIsSaved() throws Exception {
+        final Path base = write("Base.java", """
+                class Base {
+                    int count;
+                }
+                """);
+        final Path sub = write("Sub.java", """
+                class Sub extends Base {
+                    private int get() {
+                        return count;
+                    }
+                }
+                """);
+
+        final ByteArrayOutputStream log = new ByteArrayOutputStream();
+        final SourceWatcher watcher = new SourceWatcher(RunnerOptions.parse(dir.toString()),
+                new PrintStream(new ByteArrayOutputStream(), true), new PrintStream(log, true));
+        final CompletableFuture<Void> watching = CompletableFuture.runAsync(() -> {
+            try {
+                watcher.watch();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        try {
+            while (!log.toString().contains("Watching")) {
+                assertThat(watching).isNotDone();
+                Thread.sleep(50);
+            }
+
+            Files.writeString(base, """
+                    class Base {
+                        static int count;
+                    }
+                    """);
+
+            final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (!Files.readString(sub).contains("static") && System.nanoTime() < deadline) {
+                Thread.sleep(50);
+            }
+            assertThat(Files.readString(sub)).contains("private static int get()");
+        } finally {
+            watcher.close();
+            watching.get(10, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void keepsWatchingAfterARunFails() throws Exception {
+        final Path a = write("A.java", "class A {}");
+        final Path b = write("B.java", "class B {}");
+
+        final ResultWriter inPlace = ResultWriter.inPlace();
+        final AtomicBoolean failed = new AtomicBoolean();
+        final ResultWriter failingOnce = (root, result) -> {
+            if (failed.compareAndSet(false, true)) {
+                throw new IOException("disk full");
+            }
+            inPlace.write(root, result);
+        };
+        final ByteArrayOutputStream log = new ByteArrayOutputStream();
+        final SourceWatcher watcher = new SourceWatcher(RunnerOptions.parse(dir.toString()), failingOnce,
+                new PrintStream(log, true));
+        final CompletableFuture<Void> watching = CompletableFuture.runAsync(() -> {
+            try {
+                watcher.watch();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        try {
+            while (!log.toString().contains("Watching")) {
+                assertThat(watching).isNotDone();
+                Thread.sleep(50);
+            }
+
+            Files.writeString(a, """
+                    class A {
+                        private int one() {
+                            return 1;
+                        }
+                    }
+                    """);
+            final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (!log.toString().contains("disk full") && System.nanoTime() < deadline) {
+                Thread.sleep(50);
+            }
+
+            Files.writeString(b, """
+                    class B {
+                        private int two() {
+                            return 2;
+                        }
+                    }
+                    """);
+            while (!Files.readString(b).contains("static") && System.nanoTime() < deadline) {
+                Thread.sleep(50);
+            }
+            assertThat(log.toString()).contains("disk full");
+            assertThat(Files.readString(b)).contains("private static int two()");
+            assertThat(watching).isNotDone();
+        } finally {
+            watcher.close();
+            watching.get(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private Path write(final String name, final String source) throws Exception {
+        return Files.writeString(dir.resolve(name), source);
+    }
+}
@@ -0,0 +1,146 @@
+package org.openrewrite.java.cleanup.runner;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StaticCandidatesPluginTest {
+    @TempDir
+    Path root;
+
+    @TempDir
+    Path build;
+
+    @Test
+    void listsTheMethodsTheRecipeWouldMakeStatic() throws Exception {
+        final Path sample = write("p/Sample.java", """
+                package p;
+
+                import java.io.ObjectOutputStream;
+                import java.io.Serializable;
+
+                class Sample implements Serializable {
+                    private static int total;
+                    private int count;
+
+                    private int plain() {
+                        return total + 1;
+                    }
+
+                    private int usesField() {
+                        return count;
+                    }
+
+                    private int usesThis() {
+                        return this.count;
+                    }
+
+                    private int callsPlain() {
+                        return plain() * 2;
+                    }
+
+                    private int callsUsesField() {
+                        return usesField();
+                    }
+
+                    private void writeObject(ObjectOutputStream out) {
+                    }
+
+                    public final String toString() {
+                        return "sample";
+                    }
+
+                    private Runnable anonymous() {
+                        return new Runnable() {
+                            private int runs;
+
+                            public void run() {
+                                runs++;
+                            }
+                        };
+                    }
+
+                    private Object newInner() {
+                        return new Inner();
+                    }
+
+                    class Inner {
+                        private int nested() {
+                            return total;
+                        }
+                    }
+                }
+                """);
+
+        final Path candidates = build.resolve("candidates.tsv");
+        compile(candidates, "17", sample);
+        assertThat(Files.readAllLines(candidates)).containsExactly(
+                sample + "\tp.Sample\tanonymous()",
+                sample + "\tp.Sample\tcallsPlain()",
+                sample + "\tp.Sample\tplain()",
+                sample + "\tp.Sample$Inner\tnested()");
+
+        compile(candidates, null, sample);
+        assertThat(Files.readAllLines(candidates)).doesNotContain(sample + "\tp.Sample$Inner\tnested()");
+    }
+
+    @Test
+    void onlyParsesListedFiles() throws Exception {
+        final Path listed = write("a/Listed.java", """
+                package a;
+                class Listed {
+                    private int next() {
+                        return 1;
+                    }
+                }
+                """);
+        final Path unlisted = write("a/Unlisted.java", """
+                package a;
+                class Unlisted {
+                    private int count;
+
+                    private int next() {
+                        return count + 1;
+                    }
+                }
+                """);
+        final Path candidates = build.resolve("candidates.tsv");
+        compile(candidates, "17", listed, unlisted);
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final RunStats stats = new ParallelRecipeRunner(RunnerOptions.parse("--dry-run", "--candidates",
+                candidates.toString(), root.toString()), new PrintStream(out, true), System.err).run();
+
+        assertThat(stats.getFilesParsed()).isEqualTo(1);
+        assertThat(stats.getFilesScreenedOut()).isEqualTo(1);
+        assertThat(out.toString()).contains("+    private static int next() {");
+    }
+
+    private void compile(final Path candidates, final String release, final Path... sources) {
+        final List<String> args = new ArrayList<>(List.of("-d", build.resolve("classes").toString(),
+                "-processorpath", Paths.get("target/classes").toAbsolutePath().toString(),
+                "-Xplugin:" + StaticCandidatesPlugin.NAME + " " + candidates + (release == null ? "" : " " + release)));
+        for (Path source : sources) {
+            args.add(source.toString());
+        }
+        assertThat(ToolProvider.getSystemJavaCompiler().run(null, null, null, args.toArray(new String[0])))
+                .isZero();
+    }
+
+    private Path write(final String relativePath, final String source) throws Exception {
+        final Path path = root.resolve(relativePath);
+        Files.createDirectories(path.getParent());
+        Files.writeString(path, source);
+        return path;
+    }
+}
@@ -0,0 +1,155 @@
+package org.openrewrite.java.cleanup.runner;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.ToolProvider;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StaticTransformerTest {
+    @TempDir
+    Path classes;
+
+    @Test
+    void makesMethodsThatNeverUseThisStaticAcrossTheirNest() throws Exception {
+        compile("p/Sample.java", """
+                package p;
+
+                import java.util.function.Supplier;
+
+                public class Sample {
+                    private int base = 10;
+
+                    private int square(int x) {
+                        return x * x;
+                    }
+
+                    private long sum(long a, int b, String s) {
+                        long result = a + b + s.length();
+                        for (int i = 0; i < b; i++) {
+                            result += i;
+                        }
+                        return result;
+                    }
+
+                    private int plusBase(int x) {
+                        return x + base;
+                    }
+
+                    private String describe() {
+                        return "sample";
+                    }
+
+                    public Supplier<String> describer() {
+                        return this::describe;
+                    }
+
+                    public long compute(int x) {
+                        return square(x) + square(x > 0 ? x : -x) + sum(1L, x, "ab") + plusBase(x) +
+                                new Inner().twice(x);
+                    }
+
+                    public int onNull() {
+                        Sample sample = null;
+                        return sample.square(1);
+                    }
+
+                    class Inner {
+                        private int twice(int x) {
+                            return square(x) * 2;
+                        }
+                    }
+                }
+                """);
+
+        final StaticTransformer transformer = new StaticTransformer(List.of("p"));
+        try (URLClassLoader original = new URLClassLoader(new URL[]{classes.toUri().toURL()}, null);
+             URLClassLoader converted = new Converting(classes, transformer)) {
+            final Class<?> sample = converted.loadClass("p.Sample");
+            assertThat(isStatic(sample.getDeclaredMethod("square", int.class))).isTrue();
+            assertThat(isStatic(sample.getDeclaredMethod("sum", long.class, int.class, String.class))).isTrue();
+            assertThat(isStatic(sample.getDeclaredMethod("plusBase", int.class))).isFalse();
+            assertThat(isStatic(sample.getDeclaredMethod("describe"))).isFalse();
+
+            final Object instance = sample.getConstructor().newInstance();
+            final Object expected = original.loadClass("p.Sample").getMethod("compute", int.class)
+                    .invoke(original.loadClass("p.Sample").getConstructor().newInstance(), 3);
+            assertThat(sample.getMethod("compute", int.class).invoke(instance, 3)).isEqualTo(expected);
+            assertThat(((Supplier<?>) sample.getMethod("describer").invoke(instance)).get()).isEqualTo("sample");
+            assertThatThrownBy(() -> sample.getMethod("onNull").invoke(instance))
+                    .isInstanceOf(InvocationTargetException.class)
+                    .hasCauseInstanceOf(NullPointerException.class);
+        }
+    }
+
+    @Test
+    void onlyChangesClassesOfAllowedPackages() throws Exception {
+        compile("p/Sample.java", """
+                package p;
+
+                class Sample {
+                    private int one() {
+                        return 1;
+                    }
+                }
+                """);
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{classes.toUri().toURL()}, null)) {
+            final byte[] classFile = Files.readAllBytes(classes.resolve("p/Sample.class"));
+            assertThat(new StaticTransformer(List.of("q")).transform(loader, "p/Sample", null, null, classFile))
+                    .isNull();
+            assertThat(new StaticTransformer(List.of("p")).transform(loader, "p/Sample", null, null, classFile))
+                    .isNotNull();
+        }
+    }
+
+    private static boolean isStatic(final Method method) {
+        return Modifier.isStatic(method.getModifiers());
+    }
+
+    private void compile(final String relativePath, final String source) throws Exception {
+        final Path file = classes.resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, source);
+        assertThat(ToolProvider.getSystemJavaCompiler().run(null, null, null, "-d", classes.toString(),
+                file.toString())).isZero();
+    }
+
+    /**
+     * Loads the classes of a directory through the transformer, as the agent would.
+     */
+    private static final class Converting extends URLClassLoader {
+        private final Path classes;
+        private final StaticTransformer transformer;
+
+        Converting(final Path classes, final StaticTransformer transformer) throws Exception {
+            super(new URL[]{classes.toUri().toURL()}, null);
+            this.classes = classes;
+            this.transformer = transformer;
+        }
+
+        @Override
+        protected Class<?> findClass(final String name) throws ClassNotFoundException {
+            try {
+                final String internalName = name.replace('.', '/');
+                final byte[] classFile = Files.readAllBytes(classes.resolve(internalName + ".class"));
+                final byte[] transformed = transformer.transform(this, internalName, null, null, classFile);
+                final byte[] bytes = transformed == null ? classFile : transformed;
+                return defineClass(name, bytes, 0, bytes.length);
+            } catch (Exception e) {
+                throw new ClassNotFoundException(name, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package org.openrewrite.java.cleanup.runner;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.Parser;
+import org.openrewrite.SourceFile;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.java.marker.JavaSourceSet;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.JavaType;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TreeCacheTest {
+    @TempDir
+    Path root;
+
+    @Test
+    void keepsMarkersFileAttributesAndTypesOfCachedTrees() throws Exception {
+        final Path source = Files.writeString(root.resolve("A.java"), """
+                class A {
+                    private int count;
+                    int next() {
+                        return count++;
+                    }
+                }
+                """);
+        final List<Parser.Input> inputs = AnalysisEngine.read(List.of(source));
+        final List<SourceFile> parsed = new ArrayList<>(JavaParser.fromJavaVersion().build()
+                .parseInputs(inputs, root, new InMemoryExecutionContext()));
+        final TreeCache cache = new TreeCache(root.resolve("cache"), List.of());
+        final String key = cache.key(root, inputs, new InMemoryExecutionContext());
+
+        cache.store(key, parsed);
+        final List<SourceFile> loaded = cache.load(key);
+
+        assertThat(loaded).hasSize(1);
+        final J.CompilationUnit cu = (J.CompilationUnit) loaded.get(0);
+        final J.CompilationUnit original = (J.CompilationUnit) parsed.get(0);
+        assertThat(cu.printAll()).isEqualTo(original.printAll());
+        assertThat(cu.getFileAttributes()).isEqualTo(original.getFileAttributes()).isNotNull();
+        assertThat(cu.getMarkers().findFirst(JavaSourceSet.class)).isPresent();
+
+        final JavaType.FullyQualified type = cu.getClasses().get(0).getType();
+        assertThat(type).isNotNull();
+        assertThat(type.getFullyQualifiedName()).isEqualTo("A");
+        assertThat(type.getMethods()).anySatisfy(method -> {
+            assertThat(method.getName()).isEqualTo("next");
+            assertThat(method.getDeclaringType()).isSameAs(type);
+        });
+    }
+}
@@ -0,0 +1,52 @@
+package org.openrewrite.java.cleanup.runner;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.objectweb.asm.Type;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TypeTableTest {
+    @TempDir
+    Path cache;
+
+    @Test
+    void servesStaticMembersOfClasspathJarsFromCache() throws Exception {
+        final Path jar = Paths.get(Type.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+
+        final TypeTable built = TypeTable.load(List.of(jar), cache);
+        assertThat(built).isNotNull();
+        assertThat(built.getStaticFields("org.objectweb.asm.Type")).contains("INT_TYPE").doesNotContain("sort");
+        assertThat(built.getStaticMethods("org.objectweb.asm.Type"))
+                .contains("getType(java.lang.String)",
+                        "getMethodDescriptor(org.objectweb.asm.Type,org.objectweb.asm.Type[])")
+                .doesNotContain("getType", "getSort()");
+        assertThat(built.getStaticFields("org.objectweb.asm.Missing")).isNull();
+
+        final List<Path> tables;
+        try (Stream<Path> files = Files.list(cache)) {
+            tables = files.toList();
+        }
+        assertThat(tables).hasSize(1);
+        final Path table = tables.get(0);
+        final FileTime written = Files.getLastModifiedTime(table);
+
+        final TypeTable mapped = TypeTable.load(List.of(jar), cache);
+        assertThat(mapped).isNotNull();
+        assertThat(mapped.getStaticFields("org.objectweb.asm.Type")).isEqualTo(
+                built.getStaticFields("org.objectweb.asm.Type"));
+        assertThat(Files.getLastModifiedTime(table)).isEqualTo(written);
+    }
+
+    @Test
+    void skipsClassDirectories() throws Exception {
+        assertThat(TypeTable.load(List.of(cache), cache)).isNull();
+    }
+}
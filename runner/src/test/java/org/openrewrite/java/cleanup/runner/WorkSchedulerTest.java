@@ -0,0 +1,56 @@
+package org.openrewrite.java.cleanup.runner;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WorkSchedulerTest {
+    @TempDir
+    Path root;
+
+    @Test
+    void schedulesLargestUnitsFirst() throws Exception {
+        final Path small = write("a/Small.java", "class Small {}");
+        final Path big = write("b/Big.java", "class Big {\n" + "    void m() {}\n".repeat(50) + "}");
+        final Path deleted = root.resolve("c/Deleted.java");
+
+        final WorkScheduler.Schedule schedule = WorkScheduler.schedule(Map.of(root, List.of(small, big, deleted)),
+                2, 1);
+
+        assertThat(schedule.units()).extracting(WorkScheduler.Unit::files)
+                .containsExactly(List.of(big), List.of(small), List.of(deleted));
+    }
+
+    @Test
+    void keepsModulesOnOneLane() throws Exception {
+        write("app/pom.xml", "");
+        final Path a1 = write("app/src/A1.java", "class A1 {}");
+        final Path a2 = write("app/src/A2.java", "class A2 {}");
+        write("lib/pom.xml", "");
+        final Path b1 = write("lib/src/B1.java", "class B1 {}");
+        final Path b2 = write("lib/src/B2.java", "class B2 {}");
+
+        final WorkScheduler.Schedule schedule = WorkScheduler.schedule(Map.of(root, List.of(a1, a2, b1, b2)), 2, 1);
+
+        assertThat(schedule.units()).hasSize(4);
+        assertThat(schedule.unitsPerLane()).containsExactly(2, 2);
+        for (WorkScheduler.Unit unit : schedule.units()) {
+            final String module = root.relativize(unit.files().get(0)).getName(0).toString();
+            assertThat(schedule.units())
+                    .filteredOn(u -> root.relativize(u.files().get(0)).getName(0).toString().equals(module))
+                    .allMatch(u -> u.lane() == unit.lane());
+        }
+    }
+
+    private Path write(final String relativePath, final String source) throws Exception {
+        final Path path = root.resolve(relativePath);
+        Files.createDirectories(path.getParent());
+        return Files.writeString(path, source);
+    }
+}
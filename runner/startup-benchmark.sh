@@ -0,0 +1,38 @@
+#!/usr/bin/env bash
+# Compares the wall time of cold dry runs over a handful of files, without and with the class-data-sharing archive.
+# Runs this short spend much of their time in the C2 compiler, so each is also measured with C1 only.
+# Build first with: mvn -f runner/pom.xml package -Pcds
+#
+# Usage: runner/startup-benchmark.sh [runs] [source-root]
+set -euo pipefail
+
+cd "$(dirname "$0")"
+runs="${1:-5}"
+sources="${2:-../src/main}"
+jar="$(ls target/*-all.jar)"
+archive=target/runner.jsa
+java="${JAVA_HOME:+$JAVA_HOME/bin/}java"
+
+if [[ ! -f "$archive" ]]; then
+  echo "No $archive, build with: mvn -f runner/pom.xml package -Pcds" >&2
+  exit 1
+fi
+
+measure() {
+  local label="$1"
+  shift
+  local total=0
+  for ((i = 0; i < runs; i++)); do
+    local start end
+    start=$(date +%s%N)
+    "$java" "$@" -jar "$jar" --dry-run "$sources" > /dev/null 2>&1
+    end=$(date +%s%N)
+    total=$((total + (end - start) / 1000000))
+  done
+  printf '%-28s %6d ms per run\n' "$label" $((total / runs))
+}
+
+measure "shaded jar" -Xshare:auto
+measure "shaded jar + CDS archive" -XX:SharedArchiveFile="$archive"
+measure "shaded jar, C1" -Xshare:auto -XX:TieredStopAtLevel=1
+measure "shaded jar + CDS archive, C1" -XX:SharedArchiveFile="$archive" -XX:TieredStopAtLevel=1
@@ -2,19 +2,50 @@ package org.openrewrite.java.cleanup;
 
 import org.openrewrite.*;
 import org.openrewrite.internal.ListUtils;
+import org.openrewrite.internal.lang.Nullable;
 import org.openrewrite.java.JavaIsoVisitor;
+import org.openrewrite.java.cleanup.StaticMethodMetrics.Analysis;
+import org.openrewrite.java.cleanup.StaticMethodMetrics.Rejection;
+import org.openrewrite.java.cleanup.StaticMethodMetrics.Tally;
 import org.openrewrite.java.marker.JavaVersion;
 import org.openrewrite.java.tree.*;
 import org.openrewrite.java.tree.J;
 import org.openrewrite.marker.Marker;
 import org.openrewrite.marker.Markers;
+import org.openrewrite.marker.SearchResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 import static java.util.Collections.emptyList;
 
 
 public class MethodNotAccessingInstanceDataShouldBeStatic extends Recipe {
+    /**
+     * When the {@link ExecutionContext} holds {@code true} under this key, the recipe judges the names a method uses
+     * by the declarations of its file alone, for sources that were parsed without their classpath.
+     */
+    public static final String NAME_BASED_CONTEXT_KEY =
+            MethodNotAccessingInstanceDataShouldBeStatic.class.getName() + ".nameBased";
+
+    /**
+     * When the {@link ExecutionContext} holds {@code true} under this key, the recipe only searches: it marks the
+     * methods it could make static with a {@link SearchResult} and changes nothing else.
+     */
+    public static final String SEARCH_CONTEXT_KEY =
+            MethodNotAccessingInstanceDataShouldBeStatic.class.getName() + ".search";
+
+    /**
+     * When the {@link ExecutionContext} holds {@code true} under this key, the recipe searches as under
+     * {@link #SEARCH_CONTEXT_KEY} and also marks the candidates it rejected with why, naming the first instance
+     * member that stands in the way.
+     */
+    public static final String EXPLAIN_CONTEXT_KEY =
+            MethodNotAccessingInstanceDataShouldBeStatic.class.getName() + ".explain";
+
+    private static final String THIS_KEYWORD = "this";
     private static final String SUPER_KEYWORD = "super";
     private static final String SERIALIZABLE_CLASS = "java.io.Serializable";
     private static final String WRITE_OBJECT = "writeObject";
@@ -23,6 +54,15 @@ public class MethodNotAccessingInstanceDataShouldBeStatic extends Recipe {
     private static final String OBJECT_OUTPUT_STREAM_CLASS = "java.io.ObjectOutputStream";
     private static final String OBJECT_INPUT_STREAM_CLASS = "java.io.ObjectInputStream";
     private static final int MIN_JAVA_VERSION_FOR_INNER_CLASSES = 16;
+    private static final Set<String> OBJECT_INSTANCE_METHODS = new HashSet<>(Arrays.asList("clone", "equals",
+            "finalize", "getClass", "hashCode", "notify", "notifyAll", "toString", "wait"));
+    private static final String TALLIES = "tallies";
+    private static final String ITERATION = "iteration";
+    private static final String HOT_SPOT = "hotSpot";
+    private static final String FINDINGS = "findings";
+    private static final Logger SLOW_FILES = LoggerFactory.getLogger(RecipeLatencies.SLOW_FILES_LOGGER);
+
+    private final transient StaticMethodMetrics metrics = new StaticMethodMetrics(this);
 
     @Override
     public String getDisplayName() {
@@ -41,101 +81,313 @@ public class MethodNotAccessingInstanceDataShouldBeStatic extends Recipe {
 
     @Override
     public TreeVisitor<?, ExecutionContext> getVisitor() {
-        return new MakePrivateOrFinalMethodsFinalVisitor();
+        return new MakePrivateOrFinalMethodsFinalVisitor(metrics);
     }
 
     private static class MakePrivateOrFinalMethodsFinalVisitor extends JavaIsoVisitor<ExecutionContext> {
+        private final StaticMethodMetrics metrics;
+
+        MakePrivateOrFinalMethodsFinalVisitor(final StaticMethodMetrics metrics) {
+            this.metrics = metrics;
+        }
 
         @Override
         public JavaSourceFile visitJavaSourceFile(JavaSourceFile cu, ExecutionContext executionContext) {
+            final Object event = RecipeEvents.beginCompilationUnit();
+            final RecipeLatencies latencies = executionContext.getMessage(RecipeLatencies.CONTEXT_KEY);
+            final long start = latencies == null ? 0 : System.nanoTime();
+            final Map<String, Tally> tallies = new LinkedHashMap<>();
+            getCursor().putMessage(TALLIES, tallies);
+            final HotSpot hotSpot = new HotSpot();
+            getCursor().putMessage(HOT_SPOT, hotSpot);
+            final Findings findings = new Findings();
+            if (Boolean.TRUE.equals(executionContext.getMessage(SEARCH_CONTEXT_KEY)) ||
+                Boolean.TRUE.equals(executionContext.getMessage(EXPLAIN_CONTEXT_KEY))) {
+                getCursor().putMessage(FINDINGS, findings);
+            }
+
+            int iterations = 1;
+            getCursor().putMessage(ITERATION, iterations);
             JavaSourceFile c = super.visitJavaSourceFile(cu, executionContext);
 
-            while (c != cu) {
+            // A search leaves the tree as it is, so it visits again for as long as it finds more convertible methods.
+            int convertible = 0;
+            while (c != cu || findings.convertible.size() > convertible) {
+                convertible = findings.convertible.size();
                 cu = c;
+                getCursor().putMessage(ITERATION, ++iterations);
                 c = super.visitJavaSourceFile(cu, executionContext);
             }
 
+            if (!findings.analyses.isEmpty()) {
+                cu = (JavaSourceFile) new MarkFindings(findings,
+                        Boolean.TRUE.equals(executionContext.getMessage(EXPLAIN_CONTEXT_KEY)))
+                        .visitNonNull(cu, executionContext);
+            }
+
+            if (latencies != null) {
+                final long nanos = System.nanoTime() - start;
+                latencies.recordFile(nanos);
+                if (nanos >= latencies.getSlowFileNanos()) {
+                    final int size = cu instanceof SourceFile ? ((SourceFile) cu).printAll().length() : -1;
+                    SLOW_FILES.warn("{} took {} ms for {} chars in {} iteration(s); slowest method {} took {} ms",
+                            cu.getSourcePath(), TimeUnit.NANOSECONDS.toMillis(nanos), size,
+                            iterations, hotSpot.method == null ? "none" : hotSpot.method,
+                            TimeUnit.NANOSECONDS.toMillis(hotSpot.nanos));
+                }
+            }
+
+            for (Map.Entry<String, Tally> tally : tallies.entrySet()) {
+                metrics.insertRow(executionContext, tally.getValue().toRow(cu.getSourcePath().toString(),
+                        tally.getKey(), iterations));
+            }
+            RecipeEvents.commitCompilationUnit(event, cu.getSourcePath().toString(), iterations, tallies.values());
             return cu;
         }
 
         @Override
         public J.MethodDeclaration visitMethodDeclaration(J.MethodDeclaration methodDecl, ExecutionContext ctx) {
             J.MethodDeclaration md = super.visitMethodDeclaration(methodDecl, ctx);
+            final String className = className();
+            final Tally tally = tally(className);
+            tally.visit(md.getId());
 
             if (!md.hasModifier(J.Modifier.Type.Static) && (md.hasModifier(
                     J.Modifier.Type.Private) || md.hasModifier(J.Modifier.Type.Final))) {
-
-                if (!checkUpdateEligibility(getCursor(), md)) {
+                final Findings findings = getCursor().getNearestMessage(FINDINGS);
+                if (findings != null && findings.convertible.contains(md.getId())) {
+                    // An earlier visit of the search found it convertible, where editing would have made it static.
                     return md;
                 }
 
-                final Set<String> localVariables = new HashSet<>();
-                final Set<String> inputVariables = new HashSet<>();
-                final Map<String, Set<JavaType.Variable>> variablesToCheck = new HashMap<>();
-                final Map<String, Set<JavaType.Method>> methodsToCheck = new HashMap<>();
-
-                for (Statement s : md.getParameters()) {
-                    if (s instanceof J.VariableDeclarations) {
-                        final J.VariableDeclarations vd = (J.VariableDeclarations) s;
-                        for (J.VariableDeclarations.NamedVariable v : vd.getVariables()) {
-                            inputVariables.add(v.getSimpleName());
-                        }
+                final Object event = RecipeEvents.beginMethod();
+                final Analysis analysis = new Analysis();
+                final J.MethodDeclaration result = makeStatic(md, analysis, ctx);
+                tally.add(md.getId(), analysis);
+                if (findings != null) {
+                    findings.add(md, analysis);
+                }
+                final RecipeLatencies latencies = ctx.getMessage(RecipeLatencies.CONTEXT_KEY);
+                if (latencies != null) {
+                    latencies.recordMethod(analysis.totalNanos());
+                    final HotSpot hotSpot = getCursor().getNearestMessage(HOT_SPOT);
+                    if (hotSpot != null && analysis.totalNanos() > hotSpot.nanos) {
+                        hotSpot.method = className + "#" + md.getSimpleName();
+                        hotSpot.nanos = analysis.totalNanos();
                     }
                 }
+                final Integer iteration = getCursor().getNearestMessage(ITERATION);
+                RecipeEvents.commitMethod(event, className, md, iteration == null ? 1 : iteration, analysis);
+                return result;
+            }
 
-                if (!processBody(md.getBody().getStatements(), inputVariables, localVariables, variablesToCheck,
-                        methodsToCheck)) {
-                    return md;
-                }
+            return md;
+        }
+
+        /**
+         * @return {@code md} made static, or {@code md} itself if it cannot be, with why and how long each step took
+         * in {@code analysis}.
+         */
+        private J.MethodDeclaration makeStatic(J.MethodDeclaration md, final Analysis analysis,
+                                               final ExecutionContext ctx) {
+            long start = System.nanoTime();
+            final Rejection ineligible = checkUpdateEligibility(getCursor(), md);
+            analysis.eligibilityNanos = System.nanoTime() - start;
+            if (ineligible != null) {
+                analysis.reject(ineligible, null);
+                return md;
+            }
 
-                if (!variablesToCheck.isEmpty() || !methodsToCheck.isEmpty()) {
-                    final Map<String, Set<JavaType.Variable>> staticVariables = new HashMap<>();
-                    final Map<String, Set<JavaType.Method>> staticMethods = new HashMap<>();
+            final Set<String> localVariables = new HashSet<>();
+            final Set<String> inputVariables = new HashSet<>();
+            // In the order the body uses them, so that a rejection names the first member in the way.
+            final Map<String, Set<JavaType.Variable>> variablesToCheck = new LinkedHashMap<>();
+            final Map<String, Set<JavaType.Method>> methodsToCheck = new LinkedHashMap<>();
+            final Findings findings = getCursor().getNearestMessage(FINDINGS);
+            final Set<UUID> assumedStatic = findings == null ? Collections.emptySet() : findings.convertible;
+
+            start = System.nanoTime();
+            for (Statement s : md.getParameters()) {
+                if (s instanceof J.VariableDeclarations) {
+                    final J.VariableDeclarations vd = (J.VariableDeclarations) s;
+                    for (J.VariableDeclarations.NamedVariable v : vd.getVariables()) {
+                        inputVariables.add(v.getSimpleName());
+                    }
+                }
+            }
 
-                    final Cursor parent = getCursor().getParent().getParent().getParent();
-                    collectInstanceDataFromOuterClass(parent, staticVariables, staticMethods);
+            final boolean scanned = processBody(md.getBody().getStatements(), inputVariables, localVariables,
+                    variablesToCheck, methodsToCheck);
+            analysis.bodyScanNanos = System.nanoTime() - start;
+            if (!scanned) {
+                analysis.reject(Rejection.SUPER_ACCESS, SUPER_KEYWORD);
+                return md;
+            }
 
-                    for (Set<JavaType.Variable> variables : variablesToCheck.values()) {
-                        for (JavaType.Variable variable : variables) {
-                            if (!staticVariables.containsKey(variable.getName()) || !staticVariables.get(
-                                            variable.getName())
-                                    .contains(variable)) {
-                                return md;
-                            }
+            if (Boolean.TRUE.equals(ctx.getMessage(NAME_BASED_CONTEXT_KEY))) {
+                start = System.nanoTime();
+                final Rejection rejection = usesStaticMembersByName(
+                        getCursor().getParent().getParent().getParent(), variablesToCheck.keySet(),
+                        methodsToCheck.keySet(), assumedStatic, analysis);
+                analysis.outerClassNanos = System.nanoTime() - start;
+                if (rejection != null) {
+                    return md;
+                }
+            } else if (!variablesToCheck.isEmpty() || !methodsToCheck.isEmpty()) {
+                final Map<String, Set<JavaType.Variable>> staticVariables = new HashMap<>();
+                final Map<String, Set<JavaType.Method>> staticMethods = new HashMap<>();
+                final Map<String, Set<String>> staticVariableOwners = new HashMap<>();
+                final Map<String, Set<String>> staticMethodOwners = new HashMap<>();
+
+                final Cursor parent = getCursor().getParent().getParent().getParent();
+                start = System.nanoTime();
+                collectInstanceDataFromOuterClass(parent, staticVariables, staticMethods, staticVariableOwners,
+                        staticMethodOwners, assumedStatic, ctx.getMessage(SupertypeMembers.CONTEXT_KEY));
+                analysis.outerClassNanos = System.nanoTime() - start;
+
+                for (Map.Entry<String, Set<JavaType.Variable>> variables : variablesToCheck.entrySet()) {
+                    for (JavaType.Variable variable : variables.getValue()) {
+                        // A name without a type was not attributed and could be anything, an instance field included.
+                        if (variable == null) {
+                            analysis.reject(Rejection.INSTANCE_FIELD, variables.getKey());
+                            return md;
+                        }
+                        if ((!staticVariables.containsKey(variable.getName()) ||
+                             !staticVariables.get(variable.getName()).contains(variable)) &&
+                            !isOwnedBy(staticVariableOwners, variable.getName(), variable.getOwner())) {
+                            analysis.reject(Rejection.INSTANCE_FIELD, variables.getKey());
+                            return md;
                         }
                     }
+                }
 
-                    for (Set<JavaType.Method> methods : methodsToCheck.values()) {
-                        for (JavaType.Method method : methods) {
-                            if (!staticMethods.containsKey(method.getName()) || !staticMethods.get(method.getName())
-                                    .contains(method)) {
-                                return md;
-                            }
+                for (Map.Entry<String, Set<JavaType.Method>> methods : methodsToCheck.entrySet()) {
+                    for (JavaType.Method method : methods.getValue()) {
+                        // A call without a type was not attributed and could be to an instance method.
+                        if (method == null) {
+                            analysis.reject(Rejection.INSTANCE_METHOD, methods.getKey());
+                            return md;
+                        }
+                        if ((!staticMethods.containsKey(method.getName()) ||
+                             !staticMethods.get(method.getName()).contains(method)) &&
+                            !isOwnedBy(staticMethodOwners, erasedSignature(method), method.getDeclaringType())) {
+                            analysis.reject(Rejection.INSTANCE_METHOD, methods.getKey());
+                            return md;
                         }
                     }
                 }
+            }
 
-                if (md.hasModifier(J.Modifier.Type.Final)) {
-                    md = md.withModifiers(
-                            ListUtils.map(md.getModifiers(), mod -> mod.getType() == J.Modifier.Type.Final ?
-                                    mod.withType(J.Modifier.Type.Static) : mod));
-                    // TODO Need to trigger another Recipe to switch from instance to class (instance.doSomething() -> Class.doSomething())
-                } else {
-                    List<J.Modifier> mod = Arrays.asList(
-                            new J.Modifier(Tree.randomId(), Space.build(" ", emptyList()), Markers.EMPTY,
-                                    J.Modifier.Type.Static, emptyList()));
-
-                    md = autoFormat(md.withModifiers(ListUtils.insertAll(md.getModifiers(), 1, mod)), ctx);
-                }
+            if (findings != null) {
+                return md;
             }
 
+            start = System.nanoTime();
+            if (md.hasModifier(J.Modifier.Type.Final)) {
+                md = md.withModifiers(
+                        ListUtils.map(md.getModifiers(), mod -> mod.getType() == J.Modifier.Type.Final ?
+                                mod.withType(J.Modifier.Type.Static) : mod));
+                // TODO Need to trigger another Recipe to switch from instance to class (instance.doSomething() -> Class.doSomething())
+            } else {
+                List<J.Modifier> mod = Arrays.asList(
+                        new J.Modifier(Tree.randomId(), Space.build(" ", emptyList()), Markers.EMPTY,
+                                J.Modifier.Type.Static, emptyList()));
+
+                md = autoFormat(md.withModifiers(ListUtils.insertAll(md.getModifiers(), 1, mod)), ctx);
+            }
+            analysis.modificationNanos = System.nanoTime() - start;
             return md;
         }
+
+        /**
+         * @return the counters of {@code className}, which end up in {@link #metrics} once the file is done.
+         */
+        private Tally tally(final String className) {
+            final Map<String, Tally> tallies = getCursor().getNearestMessage(TALLIES);
+            if (tallies == null) {
+                return new Tally();
+            }
+            return tallies.computeIfAbsent(className, name -> new Tally());
+        }
+
+        private String className() {
+            final J.ClassDeclaration cd = getCursor().firstEnclosing(J.ClassDeclaration.class);
+            return cd == null ? "" : cd.getType() != null ? cd.getType().getFullyQualifiedName() : cd.getSimpleName();
+        }
     }
 
-    private static boolean checkUpdateEligibility(final Cursor cursor, final J.MethodDeclaration md) {
-        return checkJavaVersionIfInInnerClass(cursor) && checkIfImplementsSerializable(md,
-                cursor.getParent().getParent().getParent().getValue());
+    /**
+     * The candidate method of a file whose analysis took longest, named in the log line of a slow file.
+     */
+    private static final class HotSpot {
+        @Nullable
+        String method;
+        long nanos;
+    }
+
+    /**
+     * What a search found about the candidate methods of a file, by the id of their declaration. A search leaves the
+     * tree as it is, so the ids stay the same from one visit of the file to the next.
+     */
+    private static final class Findings {
+        final Map<UUID, Analysis> analyses = new HashMap<>();
+        final Set<UUID> convertible = new HashSet<>();
+
+        void add(final J.MethodDeclaration md, final Analysis analysis) {
+            analyses.put(md.getId(), analysis);
+            if (analysis.rejection == null) {
+                convertible.add(md.getId());
+            }
+        }
+    }
+
+    /**
+     * Marks the convertible methods a search found and, to explain, the rejected ones with why.
+     */
+    private static class MarkFindings extends JavaIsoVisitor<ExecutionContext> {
+        private final Findings findings;
+        private final boolean explain;
+
+        MarkFindings(final Findings findings, final boolean explain) {
+            this.findings = findings;
+            this.explain = explain;
+        }
+
+        @Override
+        public J.MethodDeclaration visitMethodDeclaration(J.MethodDeclaration method, ExecutionContext ctx) {
+            final J.MethodDeclaration md = super.visitMethodDeclaration(method, ctx);
+            final Analysis analysis = findings.analyses.get(md.getId());
+            if (analysis == null) {
+                return md;
+            } else if (analysis.rejection == null) {
+                return SearchResult.found(md);
+            }
+            return explain ? SearchResult.found(md, describe(analysis.rejection, analysis.blocker)) : md;
+        }
+    }
+
+    private static String describe(final Rejection rejection, @Nullable final String blocker) {
+        switch (rejection) {
+            case INSTANCE_FIELD:
+                return "uses instance field " + blocker;
+            case INSTANCE_METHOD:
+                return "calls instance method " + blocker;
+            case SUPER_ACCESS:
+                return "uses super";
+            case SERIALIZABLE_HOOK:
+                return "serialization hook of a Serializable class";
+            default:
+                return "in an inner class before Java " + MIN_JAVA_VERSION_FOR_INNER_CLASSES;
+        }
+    }
+
+    @Nullable
+    private static Rejection checkUpdateEligibility(final Cursor cursor, final J.MethodDeclaration md) {
+        if (!checkJavaVersionIfInInnerClass(cursor)) {
+            return Rejection.INNER_CLASS_BEFORE_JAVA_16;
+        }
+        return checkIfImplementsSerializable(md, cursor.getParent().getParent().getParent().getValue()) ? null :
+                Rejection.SERIALIZABLE_HOOK;
     }
 
     private static boolean checkJavaVersionIfInInnerClass(final Cursor cursor) {
@@ -591,9 +843,151 @@ public class MethodNotAccessingInstanceDataShouldBeStatic extends Recipe {
         return true;
     }
 
+    private static boolean isOwnedBy(final Map<String, Set<String>> owners, @Nullable final String name,
+                                     @Nullable final JavaType owner) {
+        final JavaType.FullyQualified ownerFq = TypeUtils.asFullyQualified(owner);
+        return ownerFq != null && name != null && owners.containsKey(name) && owners.get(name)
+                .contains(ownerFq.getFullyQualifiedName());
+    }
+
+    /**
+     * @return the name and erased parameter types of {@code method} as {@link SupertypeMembers#getStaticMethods}
+     * lists them, or null if a parameter type is unknown.
+     */
+    @Nullable
+    private static String erasedSignature(final JavaType.Method method) {
+        final StringJoiner signature = new StringJoiner(",", method.getName() + "(", ")");
+        for (JavaType parameter : method.getParameterTypes()) {
+            final String erased = erasure(parameter);
+            if (erased == null) {
+                return null;
+            }
+            signature.add(erased);
+        }
+        return signature.toString();
+    }
+
+    @Nullable
+    private static String erasure(@Nullable final JavaType type) {
+        if (type == JavaType.Primitive.String) {
+            return "java.lang.String";
+        } else if (type == JavaType.Primitive.Null || type == JavaType.Primitive.None) {
+            return null;
+        } else if (type instanceof JavaType.Primitive) {
+            return ((JavaType.Primitive) type).getKeyword();
+        } else if (type instanceof JavaType.Array) {
+            final String element = erasure(((JavaType.Array) type).getElemType());
+            return element == null ? null : element + "[]";
+        } else if (type instanceof JavaType.GenericTypeVariable) {
+            final List<JavaType> bounds = ((JavaType.GenericTypeVariable) type).getBounds();
+            return bounds.isEmpty() ? "java.lang.Object" : erasure(bounds.get(0));
+        }
+        final JavaType.FullyQualified fq = TypeUtils.asFullyQualified(type);
+        return fq == null ? null : fq.getFullyQualifiedName();
+    }
+
+    /**
+     * Judges the names a method uses by the declarations of its class and of its outer classes alone. The nearest
+     * class that declares a name decides: a static member passes, an instance member does not. A name that none of
+     * them declares could be a member inherited from a supertype that was not attributed, so it only passes if none
+     * of the classes on the way has a supertype that could declare it, or if the file imports a type of that name.
+     *
+     * @return why the method cannot be made static, which is also noted in {@code analysis} with the name in the way,
+     * or null if it can.
+     */
+    @Nullable
+    private static Rejection usesStaticMembersByName(final Cursor parent, final Set<String> variableNames,
+                                                     final Set<String> methodNames, final Set<UUID> assumedStatic,
+                                                     final Analysis analysis) {
+        if (variableNames.contains(SUPER_KEYWORD)) {
+            return analysis.reject(Rejection.SUPER_ACCESS, SUPER_KEYWORD);
+        } else if (variableNames.contains(THIS_KEYWORD)) {
+            return analysis.reject(Rejection.INSTANCE_FIELD, THIS_KEYWORD);
+        }
+        for (String name : methodNames) {
+            if (OBJECT_INSTANCE_METHODS.contains(name)) {
+                return analysis.reject(Rejection.INSTANCE_METHOD, name);
+            }
+        }
+
+        final Set<String> variables = new LinkedHashSet<>(variableNames);
+        final Set<String> methods = new LinkedHashSet<>(methodNames);
+        final JavaSourceFile cu = parent.firstEnclosing(JavaSourceFile.class);
+        if (cu != null) {
+            for (J.Import i : cu.getImports()) {
+                if (!i.isStatic()) {
+                    variables.remove(i.getQualid().getSimpleName());
+                }
+            }
+        }
+
+        Cursor cursor = parent;
+        while (true) {
+            final J.ClassDeclaration cd = cursor.getValue();
+            final J.ClassDeclaration.Kind.Type kind = cd.getKind();
+            final boolean fieldsAreStatic = kind == J.ClassDeclaration.Kind.Type.Interface ||
+                                            kind == J.ClassDeclaration.Kind.Type.Annotation;
+            final Set<String> declaredMethods = new HashSet<>();
+            variables.remove(cd.getSimpleName());
+
+            for (Statement s : cd.getBody().getStatements()) {
+                if (s instanceof J.VariableDeclarations) {
+                    final J.VariableDeclarations vd = (J.VariableDeclarations) s;
+                    final boolean isStatic = fieldsAreStatic || vd.hasModifier(J.Modifier.Type.Static);
+                    for (J.VariableDeclarations.NamedVariable v : vd.getVariables()) {
+                        if (variables.remove(v.getSimpleName()) && !isStatic) {
+                            return analysis.reject(Rejection.INSTANCE_FIELD, v.getSimpleName());
+                        }
+                    }
+                } else if (s instanceof J.MethodDeclaration) {
+                    final J.MethodDeclaration md = (J.MethodDeclaration) s;
+                    if (methods.contains(md.getSimpleName()) && !md.hasModifier(J.Modifier.Type.Static) &&
+                        !assumedStatic.contains(md.getId())) {
+                        return analysis.reject(Rejection.INSTANCE_METHOD, md.getSimpleName());
+                    }
+                    declaredMethods.add(md.getSimpleName());
+                } else if (s instanceof J.EnumValueSet) {
+                    for (J.EnumValue value : ((J.EnumValueSet) s).getEnums()) {
+                        variables.remove(value.getName().getSimpleName());
+                    }
+                } else if (s instanceof J.ClassDeclaration) {
+                    variables.remove(((J.ClassDeclaration) s).getSimpleName());
+                }
+            }
+            methods.removeAll(declaredMethods);
+
+            // Enums and records inherit or implicitly declare instance members that their body does not show.
+            final boolean implicitMembers = kind == J.ClassDeclaration.Kind.Type.Enum ||
+                                            kind == J.ClassDeclaration.Kind.Type.Record;
+            final boolean hasImplements = cd.getImplements() != null && !cd.getImplements().isEmpty();
+            if (!variables.isEmpty() && (cd.getExtends() != null || implicitMembers)) {
+                return analysis.reject(Rejection.INSTANCE_FIELD, variables.iterator().next());
+            } else if (!methods.isEmpty() && (cd.getExtends() != null || hasImplements || implicitMembers)) {
+                return analysis.reject(Rejection.INSTANCE_METHOD, methods.iterator().next());
+            }
+
+            if (!hasOuterClass(cursor)) {
+                break;
+            }
+            cursor = cursor.getParent().getParent().getParent();
+        }
+
+        // A class declared in a method body may use the instance of the class the method belongs to.
+        if (cursor.getParentTreeCursor().getValue() instanceof JavaSourceFile) {
+            return null;
+        } else if (!variables.isEmpty()) {
+            return analysis.reject(Rejection.INSTANCE_FIELD, variables.iterator().next());
+        }
+        return methods.isEmpty() ? null : analysis.reject(Rejection.INSTANCE_METHOD, methods.iterator().next());
+    }
+
     private static void collectInstanceDataFromOuterClass(final Cursor parent,
                                                           final Map<String, Set<JavaType.Variable>> staticVariables,
-                                                          final Map<String, Set<JavaType.Method>> staticMethods) {
+                                                          final Map<String, Set<JavaType.Method>> staticMethods,
+                                                          final Map<String, Set<String>> staticVariableOwners,
+                                                          final Map<String, Set<String>> staticMethodOwners,
+                                                          final Set<UUID> assumedStatic,
+                                                          @Nullable final SupertypeMembers supertypeMembers) {
         final J.ClassDeclaration parentClass = parent.getValue();
 
         for (Statement s : parentClass.getBody().getStatements()) {
@@ -611,7 +1005,7 @@ public class MethodNotAccessingInstanceDataShouldBeStatic extends Recipe {
                 }
             } else if (s instanceof J.MethodDeclaration) {
                 final J.MethodDeclaration md = (J.MethodDeclaration) s;
-                if (md.hasModifier(J.Modifier.Type.Static)) {
+                if (md.hasModifier(J.Modifier.Type.Static) || assumedStatic.contains(md.getId())) {
                     final String methodName = md.getSimpleName();
                     final Set<JavaType.Method> methods = staticMethods.getOrDefault(methodName, new HashSet<>());
                     methods.add(md.getMethodType());
@@ -622,7 +1016,7 @@ public class MethodNotAccessingInstanceDataShouldBeStatic extends Recipe {
 
         if (hasOuterClass(parent)) {
             collectInstanceDataFromOuterClass(parent.getParent().getParent().getParent(), staticVariables,
-                    staticMethods);
+                    staticMethods, staticVariableOwners, staticMethodOwners, assumedStatic, supertypeMembers);
         }
 
         if (parentClass.getExtends() != null) {
@@ -631,6 +1025,26 @@ public class MethodNotAccessingInstanceDataShouldBeStatic extends Recipe {
                 return;
             }
 
+            // A superclass compiled elsewhere is looked up by name, which spares walking its attributed members.
+            if (supertypeMembers != null) {
+                final String parentName = parentFq.getFullyQualifiedName();
+                final Set<String> fields = supertypeMembers.getStaticFields(parentName);
+                final Set<String> methods = supertypeMembers.getStaticMethods(parentName);
+                if (fields != null && methods != null) {
+                    for (String field : fields) {
+                        final Set<String> owners = staticVariableOwners.getOrDefault(field, new HashSet<>());
+                        owners.add(parentName);
+                        staticVariableOwners.put(field, owners);
+                    }
+                    for (String method : methods) {
+                        final Set<String> owners = staticMethodOwners.getOrDefault(method, new HashSet<>());
+                        owners.add(parentName);
+                        staticMethodOwners.put(method, owners);
+                    }
+                    return;
+                }
+            }
+
             for (JavaType.Method method : parentFq.getMethods()) {
                 if (method.hasFlags(Flag.Static)) {
                     final String methodName = method.getName();
@@ -0,0 +1,179 @@
+package org.openrewrite.java.cleanup;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+import org.openrewrite.internal.lang.Nullable;
+import org.openrewrite.java.JavaIsoVisitor;
+import org.openrewrite.java.cleanup.StaticMethodMetrics.Analysis;
+import org.openrewrite.java.cleanup.StaticMethodMetrics.Tally;
+import org.openrewrite.java.tree.J;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Java Flight Recorder events of {@link MethodNotAccessingInstanceDataShouldBeStatic}, one per compilation unit and
+ * one per candidate method. Not every Java 8 runtime has JFR, so the recipe only hands the events around as objects
+ * and this class touches the event types only once it found JFR. While no recording asks for an event, none is
+ * begun and nothing about it is computed.
+ */
+final class RecipeEvents {
+    private static final boolean AVAILABLE = isAvailable();
+
+    private RecipeEvents() {
+    }
+
+    private static boolean isAvailable() {
+        try {
+            Class.forName("jdk.jfr.Event", false, RecipeEvents.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return the begun event of a compilation unit, or null if it is not recorded.
+     */
+    @Nullable
+    static Object beginCompilationUnit() {
+        if (!AVAILABLE) {
+            return null;
+        }
+        final CompilationUnitEvent event = new CompilationUnitEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    static void commitCompilationUnit(@Nullable final Object begun, final String sourcePath, final int iterations,
+                                      final Collection<Tally> tallies) {
+        if (begun == null) {
+            return;
+        }
+        final CompilationUnitEvent event = (CompilationUnitEvent) begun;
+        event.end();
+        if (event.shouldCommit()) {
+            event.sourcePath = sourcePath;
+            event.iterations = iterations;
+            for (Tally tally : tallies) {
+                event.methodsVisited += tally.methodsVisited();
+                event.candidates += tally.candidates();
+                event.conversions += tally.conversions();
+            }
+            event.commit();
+        }
+    }
+
+    /**
+     * @return the begun event of a candidate method, or null if it is not recorded.
+     */
+    @Nullable
+    static Object beginMethod() {
+        if (!AVAILABLE) {
+            return null;
+        }
+        final MethodEvent event = new MethodEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    static void commitMethod(@Nullable final Object begun, final String className, final J.MethodDeclaration md,
+                             final int iteration, final Analysis analysis) {
+        if (begun == null) {
+            return;
+        }
+        final MethodEvent event = (MethodEvent) begun;
+        event.end();
+        if (event.shouldCommit()) {
+            event.className = className;
+            event.methodName = md.getSimpleName();
+            event.nodeCount = nodeCount(md);
+            event.iteration = iteration;
+            event.outcome = analysis.rejection == null ? "CONVERTED" : analysis.rejection.name();
+            event.processBodyTime = analysis.bodyScanNanos;
+            event.outerClassTime = analysis.outerClassNanos;
+            event.autoFormatTime = analysis.modificationNanos;
+            event.commit();
+        }
+    }
+
+    private static int nodeCount(final J.MethodDeclaration md) {
+        final AtomicInteger count = new AtomicInteger();
+        new JavaIsoVisitor<AtomicInteger>() {
+            @Override
+            public J preVisit(final J tree, final AtomicInteger n) {
+                n.incrementAndGet();
+                return tree;
+            }
+        }.visit(md, count);
+        return count.get();
+    }
+
+    @Name("org.openrewrite.java.cleanup.CompilationUnit")
+    @Label("Compilation Unit")
+    @Description("A source file the recipe visited until it changed nothing more")
+    @Category({"OpenRewrite", "Static Methods"})
+    static final class CompilationUnitEvent extends Event {
+        @Label("Source Path")
+        String sourcePath;
+
+        @Label("Iterations")
+        int iterations;
+
+        @Label("Methods Visited")
+        long methodsVisited;
+
+        @Label("Candidates")
+        long candidates;
+
+        @Label("Conversions")
+        long conversions;
+    }
+
+    @Name("org.openrewrite.java.cleanup.Method")
+    @Label("Method")
+    @Description("A private or final instance method the recipe considered making static")
+    @Category({"OpenRewrite", "Static Methods"})
+    static final class MethodEvent extends Event {
+        @Label("Class")
+        String className;
+
+        @Label("Method")
+        String methodName;
+
+        @Label("Node Count")
+        @Description("Tree nodes of the method declaration")
+        int nodeCount;
+
+        @Label("Iteration")
+        @Description("The visit of the file, counted from 1, in which the method was considered")
+        int iteration;
+
+        @Label("Outcome")
+        @Description("CONVERTED, or why the method was left as it was")
+        String outcome;
+
+        @Label("processBody Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long processBodyTime;
+
+        @Label("collectInstanceDataFromOuterClass Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long outerClassTime;
+
+        @Label("autoFormat Time")
+        @Description("Adding the static modifier, which includes formatting the method")
+        @Timespan(Timespan.NANOSECONDS)
+        long autoFormatTime;
+    }
+}
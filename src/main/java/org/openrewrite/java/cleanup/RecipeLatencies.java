@@ -0,0 +1,30 @@
+package org.openrewrite.java.cleanup;
+
+import org.openrewrite.ExecutionContext;
+
+/**
+ * Where {@link MethodNotAccessingInstanceDataShouldBeStatic} reports how long it took. When one is put into the
+ * {@link ExecutionContext} under {@link #CONTEXT_KEY}, the recipe times each file and each candidate method, and
+ * logs the files slower than {@link #getSlowFileNanos()} to {@link #SLOW_FILES_LOGGER} with their size and the method
+ * that took longest. Without one, nothing is timed or logged per file.
+ */
+public interface RecipeLatencies {
+    String CONTEXT_KEY = RecipeLatencies.class.getName();
+
+    String SLOW_FILES_LOGGER = "org.openrewrite.java.cleanup.SlowFiles";
+
+    /**
+     * @return how long the recipe may take on a file before it is logged, in nanoseconds.
+     */
+    long getSlowFileNanos();
+
+    /**
+     * @param nanos the time of every visit of a file until the recipe changed nothing more.
+     */
+    void recordFile(long nanos);
+
+    /**
+     * @param nanos the time of one analysis of a candidate method.
+     */
+    void recordMethod(long nanos);
+}
@@ -0,0 +1,269 @@
+package org.openrewrite.java.cleanup;
+
+import org.openrewrite.Column;
+import org.openrewrite.DataTable;
+import org.openrewrite.Recipe;
+import org.openrewrite.internal.lang.Nullable;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * What {@link MethodNotAccessingInstanceDataShouldBeStatic} did with the methods of each class, one row per class and
+ * file. The recipe visits a file again until it changes nothing more. The counters of a row count each method once,
+ * by what became of it in the last iteration that analyzed it, while its times are summed over all iterations.
+ */
+public class StaticMethodMetrics extends DataTable<StaticMethodMetrics.Row> {
+
+    public StaticMethodMetrics(Recipe recipe) {
+        super(recipe, Row.class, StaticMethodMetrics.class.getName(),
+                "Static method metrics",
+                "Methods visited, candidates, conversions and rejections by reason, with the time spent in each " +
+                "phase of the recipe, per class.");
+    }
+
+    /**
+     * Why the recipe left a candidate method as it was.
+     */
+    enum Rejection {
+        INSTANCE_FIELD, INSTANCE_METHOD, SUPER_ACCESS, SERIALIZABLE_HOOK, INNER_CLASS_BEFORE_JAVA_16
+    }
+
+    /**
+     * What became of one candidate method, and how long each step took.
+     */
+    static final class Analysis {
+        @Nullable
+        Rejection rejection;
+        @Nullable
+        String blocker;
+        long eligibilityNanos;
+        long bodyScanNanos;
+        long outerClassNanos;
+        long modificationNanos;
+
+        /**
+         * @param blocker the first member or keyword the method uses that keeps it from being static, if any.
+         * @return {@code rejection}.
+         */
+        Rejection reject(final Rejection rejection, @Nullable final String blocker) {
+            this.rejection = rejection;
+            this.blocker = blocker;
+            return rejection;
+        }
+
+        long totalNanos() {
+            return eligibilityNanos + bodyScanNanos + outerClassNanos + modificationNanos;
+        }
+    }
+
+    /**
+     * The counters and times of one class while the recipe runs on its file. Methods are told apart by their id,
+     * which stays the same when the recipe makes a method static.
+     */
+    static final class Tally {
+        final Set<UUID> visited = new HashSet<>();
+        final Map<UUID, Analysis> outcomes = new HashMap<>();
+        long eligibilityNanos;
+        long bodyScanNanos;
+        long outerClassNanos;
+        long modificationNanos;
+
+        void visit(final UUID method) {
+            visited.add(method);
+        }
+
+        void add(final UUID method, final Analysis analysis) {
+            outcomes.put(method, analysis);
+            eligibilityNanos += analysis.eligibilityNanos;
+            bodyScanNanos += analysis.bodyScanNanos;
+            outerClassNanos += analysis.outerClassNanos;
+            modificationNanos += analysis.modificationNanos;
+        }
+
+        long methodsVisited() {
+            return visited.size();
+        }
+
+        long candidates() {
+            return outcomes.size();
+        }
+
+        long conversions() {
+            return rejections(null);
+        }
+
+        /**
+         * @return how many candidates were last left as they were for {@code rejection}, or were converted if it is
+         * null.
+         */
+        long rejections(@Nullable final Rejection rejection) {
+            long count = 0;
+            for (Analysis analysis : outcomes.values()) {
+                if (analysis.rejection == rejection) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        Row toRow(final String sourcePath, final String className, final int iterations) {
+            return new Row(sourcePath, className, iterations, methodsVisited(), candidates(), conversions(),
+                    rejections(Rejection.INSTANCE_FIELD),
+                    rejections(Rejection.INSTANCE_METHOD),
+                    rejections(Rejection.SUPER_ACCESS),
+                    rejections(Rejection.SERIALIZABLE_HOOK),
+                    rejections(Rejection.INNER_CLASS_BEFORE_JAVA_16),
+                    eligibilityNanos, bodyScanNanos, outerClassNanos, modificationNanos);
+        }
+    }
+
+    public static final class Row {
+        @Column(displayName = "Source path",
+                description = "The file the class is declared in.")
+        private final String sourcePath;
+
+        @Column(displayName = "Class",
+                description = "The fully qualified name of the class the methods belong to.")
+        private final String className;
+
+        @Column(displayName = "Iterations",
+                description = "How often the recipe visited the file until it changed nothing more.")
+        private final int iterations;
+
+        @Column(displayName = "Methods visited",
+                description = "Method declarations the recipe visited.")
+        private final long methodsVisited;
+
+        @Column(displayName = "Candidates",
+                description = "Visited methods that are private or final and not static yet.")
+        private final long candidates;
+
+        @Column(displayName = "Conversions",
+                description = "Candidates the recipe made static, or found it could make static when searching.")
+        private final long conversions;
+
+        @Column(displayName = "Instance field rejections",
+                description = "Candidates left as they were because they use an instance field.")
+        private final long instanceFieldRejections;
+
+        @Column(displayName = "Instance method rejections",
+                description = "Candidates left as they were because they call an instance method.")
+        private final long instanceMethodRejections;
+
+        @Column(displayName = "Super access rejections",
+                description = "Candidates left as they were because they use `super`.")
+        private final long superAccessRejections;
+
+        @Column(displayName = "Serializable hook rejections",
+                description = "Candidates left as they were because they are serialization hooks of a " +
+                              "Serializable class.")
+        private final long serializableHookRejections;
+
+        @Column(displayName = "Inner class rejections",
+                description = "Candidates left as they were because they are declared in an inner class of a " +
+                              "source older than Java 16.")
+        private final long innerClassRejections;
+
+        @Column(displayName = "Eligibility check time (ns)",
+                description = "Time spent on the inner class and serialization hook rules.")
+        private final long eligibilityNanos;
+
+        @Column(displayName = "Body scan time (ns)",
+                description = "Time spent collecting the names the method bodies use.")
+        private final long bodyScanNanos;
+
+        @Column(displayName = "Outer class collection time (ns)",
+                description = "Time spent collecting the static members of the class, its outer classes and " +
+                              "superclasses.")
+        private final long outerClassNanos;
+
+        @Column(displayName = "Modification time (ns)",
+                description = "Time spent adding the static modifier and formatting the changed methods.")
+        private final long modificationNanos;
+
+        public Row(String sourcePath, String className, int iterations, long methodsVisited, long candidates,
+                   long conversions, long instanceFieldRejections, long instanceMethodRejections,
+                   long superAccessRejections, long serializableHookRejections, long innerClassRejections,
+                   long eligibilityNanos, long bodyScanNanos, long outerClassNanos, long modificationNanos) {
+            this.sourcePath = sourcePath;
+            this.className = className;
+            this.iterations = iterations;
+            this.methodsVisited = methodsVisited;
+            this.candidates = candidates;
+            this.conversions = conversions;
+            this.instanceFieldRejections = instanceFieldRejections;
+            this.instanceMethodRejections = instanceMethodRejections;
+            this.superAccessRejections = superAccessRejections;
+            this.serializableHookRejections = serializableHookRejections;
+            this.innerClassRejections = innerClassRejections;
+            this.eligibilityNanos = eligibilityNanos;
+            this.bodyScanNanos = bodyScanNanos;
+            this.outerClassNanos = outerClassNanos;
+            this.modificationNanos = modificationNanos;
+        }
+
+        public String getSourcePath() {
+            return sourcePath;
+        }
+
+        public String getClassName() {
+            return className;
+        }
+
+        public int getIterations() {
+            return iterations;
+        }
+
+        public long getMethodsVisited() {
+            return methodsVisited;
+        }
+
+        public long getCandidates() {
+            return candidates;
+        }
+
+        public long getConversions() {
+            return conversions;
+        }
+
+        public long getInstanceFieldRejections() {
+            return instanceFieldRejections;
+        }
+
+        public long getInstanceMethodRejections() {
+            return instanceMethodRejections;
+        }
+
+        public long getSuperAccessRejections() {
+            return superAccessRejections;
+        }
+
+        public long getSerializableHookRejections() {
+            return serializableHookRejections;
+        }
+
+        public long getInnerClassRejections() {
+            return innerClassRejections;
+        }
+
+        public long getEligibilityNanos() {
+            return eligibilityNanos;
+        }
+
+        public long getBodyScanNanos() {
+            return bodyScanNanos;
+        }
+
+        public long getOuterClassNanos() {
+            return outerClassNanos;
+        }
+
+        public long getModificationNanos() {
+            return modificationNanos;
+        }
+    }
+}
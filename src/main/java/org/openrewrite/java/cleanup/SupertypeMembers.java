@@ -0,0 +1,34 @@
+package org.openrewrite.java.cleanup;
+
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.internal.lang.Nullable;
+
+import java.util.Set;
+
+/**
+ * The static members of types that were compiled elsewhere, such as the classes in the jars on the classpath. When
+ * one is put into the {@link ExecutionContext} under {@link #CONTEXT_KEY},
+ * {@link MethodNotAccessingInstanceDataShouldBeStatic} takes the static members of a superclass it knows from it
+ * rather than from the attributed type.
+ */
+public interface SupertypeMembers {
+    String CONTEXT_KEY = SupertypeMembers.class.getName();
+
+    /**
+     * @param fullyQualifiedName the name of the type, with a {@code $} before the name of a nested type.
+     * @return the names of the static fields of the type, or null if the type is unknown.
+     */
+    @Nullable
+    Set<String> getStaticFields(String fullyQualifiedName);
+
+    /**
+     * A static and an instance method may share a name, so static methods are told apart by their erased signature:
+     * the name and the erased parameter types as {@link Class#getName()} spells them, apart from arrays, which end in
+     * {@code []}, e.g. {@code log(java.lang.String)}, {@code sleep(long)} or {@code max(int[])}.
+     *
+     * @param fullyQualifiedName the name of the type, with a {@code $} before the name of a nested type.
+     * @return the erased signatures of the static methods of the type, or null if the type is unknown.
+     */
+    @Nullable
+    Set<String> getStaticMethods(String fullyQualifiedName);
+}
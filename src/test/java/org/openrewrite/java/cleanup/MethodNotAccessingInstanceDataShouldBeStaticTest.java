@@ -1,9 +1,26 @@
 package org.openrewrite.java.cleanup;
 
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.InMemoryExecutionContext;
 import org.openrewrite.test.RecipeSpec;
 import org.openrewrite.test.RewriteTest;
+import org.slf4j.LoggerFactory;
 
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.openrewrite.java.Assertions.java;
 import static org.openrewrite.java.Assertions.version;
 
@@ -4026,6 +4043,27 @@ public class MethodNotAccessingInstanceDataShouldBeStaticTest implements Rewrite
         );
     }
 
+    @Test
+    void notAddingStaticWhenANameIsNotAttributed() {
+        rewriteRun(
+                java(
+                        """
+                                    class A {
+                                        private static int staticVariable = 1;
+
+                                        private int read() {
+                                            return staticVariable + missing;
+                                        }
+
+                                        private void call() {
+                                            missing();
+                                        }
+                                    }
+                                """
+                )
+        );
+    }
+
     @Test
     void notAddingStaticToPrivateMethodUsingInstanceMethodAndNotInstanceVariable() {
         rewriteRun(
@@ -8463,4 +8501,579 @@ public class MethodNotAccessingInstanceDataShouldBeStaticTest implements Rewrite
                 )
         );
     }
+
+    @Test
+    void takesStaticMembersOfSuperclassFromSupertypeMembers() {
+        rewriteRun(
+                spec -> spec.executionContext(withSupertypeMembers("java.lang.Thread",
+                        Collections.singleton("MAX_PRIORITY"), Collections.singleton("currentThread()"))),
+                java(
+                        """
+                                    class B extends Thread {
+                                        private int priority() {
+                                            return MAX_PRIORITY;
+                                        }
+
+                                        private Thread current() {
+                                            return currentThread();
+                                        }
+                                    }
+                                """,
+                        """
+                                    class B extends Thread {
+                                        private static int priority() {
+                                            return MAX_PRIORITY;
+                                        }
+
+                                        private static Thread current() {
+                                            return currentThread();
+                                        }
+                                    }
+                                """
+                )
+        );
+    }
+
+    @Test
+    void tellsStaticAndInstanceOverloadsOfSupertypeMembersApart() {
+        rewriteRun(
+                spec -> spec.executionContext(withSupertypeMembers("Base", Collections.emptySet(),
+                        Collections.singleton("log(java.lang.String)"))),
+                java(
+                        """
+                                    class Base {
+                                        static void log(String message) {
+                                        }
+
+                                        void log(int code) {
+                                        }
+                                    }
+
+                                    class Sub extends Base {
+                                        private void message() {
+                                            log("message");
+                                        }
+
+                                        private void code() {
+                                            log(1);
+                                        }
+                                    }
+                                """,
+                        """
+                                    class Base {
+                                        static void log(String message) {
+                                        }
+
+                                        void log(int code) {
+                                        }
+                                    }
+
+                                    class Sub extends Base {
+                                        private static void message() {
+                                            log("message");
+                                        }
+
+                                        private void code() {
+                                            log(1);
+                                        }
+                                    }
+                                """
+                )
+        );
+    }
+
+    @Test
+    void notAddingStaticWhenSupertypeMembersDoNotListTheMember() {
+        rewriteRun(
+                spec -> spec.executionContext(withSupertypeMembers("java.lang.Thread", Collections.emptySet(),
+                        Collections.emptySet())),
+                java(
+                        """
+                                    class B extends Thread {
+                                        private int priority() {
+                                            return MAX_PRIORITY;
+                                        }
+                                    }
+                                """
+                )
+        );
+    }
+
+    @Test
+    void addsStaticByNameWhenOnlyStaticMembersOfTheFileAreUsed() {
+        rewriteRun(
+                spec -> spec.executionContext(nameBased()),
+                java(
+                        """
+                                    import java.util.Collections;
+                                    import java.util.List;
+
+                                    class B extends Thread {
+                                        private static final int LIMIT = 3;
+                                        private int count;
+
+                                        private static int twice(int x) {
+                                            return 2 * x;
+                                        }
+
+                                        private List<String> empty() {
+                                            return Collections.emptyList();
+                                        }
+
+                                        private int limit(int x) {
+                                            return twice(LIMIT) + x;
+                                        }
+
+                                        private int counted() {
+                                            return count;
+                                        }
+
+                                        private int priority() {
+                                            return MAX_PRIORITY;
+                                        }
+
+                                        private int hash() {
+                                            return hashCode();
+                                        }
+                                    }
+                                """,
+                        """
+                                    import java.util.Collections;
+                                    import java.util.List;
+
+                                    class B extends Thread {
+                                        private static final int LIMIT = 3;
+                                        private int count;
+
+                                        private static int twice(int x) {
+                                            return 2 * x;
+                                        }
+
+                                        private static List<String> empty() {
+                                            return Collections.emptyList();
+                                        }
+
+                                        private static int limit(int x) {
+                                            return twice(LIMIT) + x;
+                                        }
+
+                                        private int counted() {
+                                            return count;
+                                        }
+
+                                        private int priority() {
+                                            return MAX_PRIORITY;
+                                        }
+
+                                        private int hash() {
+                                            return hashCode();
+                                        }
+                                    }
+                                """
+                )
+        );
+    }
+
+    @Test
+    void addsStaticByNameOnlyWhereTheNearestDeclarationIsStatic() {
+        rewriteRun(
+                spec -> spec.executionContext(nameBased()),
+                version(
+                        java(
+                                """
+                                            class A {
+                                                private static String name = "a";
+                                                private String label = "b";
+
+                                                class Inner {
+                                                    private String name() {
+                                                        return name;
+                                                    }
+
+                                                    private String label() {
+                                                        return label;
+                                                    }
+                                                }
+
+                                                class Shadowing {
+                                                    private String name;
+
+                                                    private String name() {
+                                                        return name;
+                                                    }
+                                                }
+                                            }
+                                        """,
+                                """
+                                            class A {
+                                                private static String name = "a";
+                                                private String label = "b";
+
+                                                class Inner {
+                                                    private static String name() {
+                                                        return name;
+                                                    }
+
+                                                    private String label() {
+                                                        return label;
+                                                    }
+                                                }
+
+                                                class Shadowing {
+                                                    private String name;
+
+                                                    private String name() {
+                                                        return name;
+                                                    }
+                                                }
+                                            }
+                                        """
+                        ), 16)
+        );
+    }
+
+    @Test
+    void recordsCandidatesConversionsAndRejectionsPerClass() {
+        rewriteRun(
+                spec -> spec.cycles(1).expectedCyclesThatMakeChanges(1)
+                        .dataTable(StaticMethodMetrics.Row.class, rows -> {
+                            assertThat(rows).hasSize(1);
+                            StaticMethodMetrics.Row row = rows.get(0);
+                            assertThat(row.getClassName()).isEqualTo("A");
+                            assertThat(row.getIterations()).isEqualTo(2);
+                            assertThat(row.getMethodsVisited()).isEqualTo(5);
+                            assertThat(row.getCandidates()).isEqualTo(4);
+                            assertThat(row.getConversions()).isEqualTo(1);
+                            assertThat(row.getInstanceFieldRejections()).isEqualTo(1);
+                            assertThat(row.getInstanceMethodRejections()).isEqualTo(1);
+                            assertThat(row.getSuperAccessRejections()).isEqualTo(1);
+                            assertThat(row.getSerializableHookRejections()).isZero();
+                            assertThat(row.getInnerClassRejections()).isZero();
+                        }),
+                java(
+                        """
+                                    class A {
+                                        private int count;
+
+                                        public void instanceMethod() {
+                                        }
+
+                                        private int one() {
+                                            return 1;
+                                        }
+
+                                        private int counted() {
+                                            return count;
+                                        }
+
+                                        private void calls() {
+                                            instanceMethod();
+                                        }
+
+                                        private String describe() {
+                                            return super.toString();
+                                        }
+                                    }
+                                """,
+                        """
+                                    class A {
+                                        private int count;
+
+                                        public void instanceMethod() {
+                                        }
+
+                                        private static int one() {
+                                            return 1;
+                                        }
+
+                                        private int counted() {
+                                            return count;
+                                        }
+
+                                        private void calls() {
+                                            instanceMethod();
+                                        }
+
+                                        private String describe() {
+                                            return super.toString();
+                                        }
+                                    }
+                                """
+                )
+        );
+    }
+
+    @Test
+    void emitsFlightRecorderEventsPerCompilationUnitAndMethod(@TempDir Path dump) throws Exception {
+        try (Recording recording = new Recording()) {
+            recording.enable("org.openrewrite.java.cleanup.CompilationUnit");
+            recording.enable("org.openrewrite.java.cleanup.Method");
+            recording.start();
+            rewriteRun(
+                    spec -> spec.cycles(1).expectedCyclesThatMakeChanges(1),
+                    java(
+                            """
+                                        class A {
+                                            private int count;
+
+                                            private int one() {
+                                                return 1;
+                                            }
+
+                                            private int counted() {
+                                                return count;
+                                            }
+                                        }
+                                    """,
+                            """
+                                        class A {
+                                            private int count;
+
+                                            private static int one() {
+                                                return 1;
+                                            }
+
+                                            private int counted() {
+                                                return count;
+                                            }
+                                        }
+                                    """
+                    )
+            );
+            recording.stop();
+            recording.dump(dump.resolve("recipe.jfr"));
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(dump.resolve("recipe.jfr"));
+        assertThat(events).filteredOn(e -> e.getEventType().getName().endsWith(".CompilationUnit"))
+                .singleElement()
+                .satisfies(e -> {
+                    assertThat(e.getInt("iterations")).isEqualTo(2);
+                    assertThat(e.getLong("conversions")).isEqualTo(1);
+                });
+        assertThat(events).filteredOn(e -> e.getEventType().getName().endsWith(".Method"))
+                .extracting(e -> e.getString("methodName") + " " + e.getInt("iteration") + " " +
+                                 e.getString("outcome"))
+                .containsExactlyInAnyOrder("one 1 CONVERTED", "counted 1 INSTANCE_FIELD", "counted 2 INSTANCE_FIELD");
+        assertThat(events).filteredOn(e -> e.getEventType().getName().endsWith(".Method"))
+                .allSatisfy(e -> assertThat(e.getInt("nodeCount")).isPositive());
+    }
+
+    @Test
+    void recordsLatenciesAndLogsFilesOverTheThreshold() {
+        List<Long> files = new ArrayList<>();
+        List<Long> methods = new ArrayList<>();
+        ExecutionContext ctx = new InMemoryExecutionContext(t -> {
+            throw new AssertionError(t);
+        });
+        ctx.putMessage(RecipeLatencies.CONTEXT_KEY, new RecipeLatencies() {
+            @Override
+            public long getSlowFileNanos() {
+                return 0;
+            }
+
+            @Override
+            public void recordFile(long nanos) {
+                files.add(nanos);
+            }
+
+            @Override
+            public void recordMethod(long nanos) {
+                methods.add(nanos);
+            }
+        });
+        Logger slowFiles = (Logger) LoggerFactory.getLogger(RecipeLatencies.SLOW_FILES_LOGGER);
+        ListAppender<ILoggingEvent> logged = new ListAppender<>();
+        logged.start();
+        slowFiles.addAppender(logged);
+        try {
+            rewriteRun(
+                    spec -> spec.executionContext(ctx).cycles(1).expectedCyclesThatMakeChanges(1),
+                    java(
+                            """
+                                        class A {
+                                            private int count;
+
+                                            private int one() {
+                                                return 1;
+                                            }
+
+                                            private int counted() {
+                                                return count;
+                                            }
+                                        }
+                                    """,
+                            """
+                                        class A {
+                                            private int count;
+
+                                            private static int one() {
+                                                return 1;
+                                            }
+
+                                            private int counted() {
+                                                return count;
+                                            }
+                                        }
+                                    """
+                    )
+            );
+        } finally {
+            slowFiles.detachAppender(logged);
+        }
+
+        assertThat(files).hasSize(1);
+        assertThat(methods).hasSize(3);
+        assertThat(logged.list).singleElement()
+                .extracting(ILoggingEvent::getFormattedMessage)
+                .asString()
+                .startsWith("A.java took ")
+                .contains(" chars in 2 iteration(s); slowest method A#");
+    }
+
+    @Test
+    void searchMarksConvertibleMethodsWithoutChangingThem() {
+        rewriteRun(
+                spec -> spec.executionContext(withFlag(MethodNotAccessingInstanceDataShouldBeStatic.SEARCH_CONTEXT_KEY))
+                        .cycles(1).expectedCyclesThatMakeChanges(1)
+                        .dataTable(StaticMethodMetrics.Row.class, rows -> assertThat(rows).singleElement()
+                                .satisfies(row -> {
+                                    assertThat(row.getCandidates()).isEqualTo(3);
+                                    assertThat(row.getConversions()).isEqualTo(2);
+                                    assertThat(row.getModificationNanos()).isZero();
+                                })),
+                java(
+                        """
+                                    class A {
+                                        private int count;
+
+                                        private int one() {
+                                            return 1;
+                                        }
+
+                                        private int two() {
+                                            return one() + one();
+                                        }
+
+                                        private int counted() {
+                                            return count;
+                                        }
+                                    }
+                                """,
+                        """
+                                    class A {
+                                        private int count;
+
+                                        /*~~>*/private int one() {
+                                            return 1;
+                                        }
+
+                                        /*~~>*/private int two() {
+                                            return one() + one();
+                                        }
+
+                                        private int counted() {
+                                            return count;
+                                        }
+                                    }
+                                """
+                )
+        );
+    }
+
+    @Test
+    void explainMarksRejectedMethodsWithTheFirstMemberInTheWay() {
+        rewriteRun(
+                spec -> spec.executionContext(withFlag(MethodNotAccessingInstanceDataShouldBeStatic.EXPLAIN_CONTEXT_KEY)),
+                java(
+                        """
+                                    import java.io.Serializable;
+                                    import java.io.ObjectOutputStream;
+
+                                    class A implements Serializable {
+                                        private int count;
+                                        private String name;
+
+                                        private int one() {
+                                            return 1;
+                                        }
+
+                                        private String counted() {
+                                            return name + count;
+                                        }
+
+                                        private int sized() {
+                                            return one() + size();
+                                        }
+
+                                        int size() {
+                                            return 0;
+                                        }
+
+                                        private void writeObject(ObjectOutputStream out) {
+                                        }
+                                    }
+                                """,
+                        """
+                                    import java.io.Serializable;
+                                    import java.io.ObjectOutputStream;
+
+                                    class A implements Serializable {
+                                        private int count;
+                                        private String name;
+
+                                        /*~~>*/private int one() {
+                                            return 1;
+                                        }
+
+                                        /*~~(uses instance field name)~~>*/private String counted() {
+                                            return name + count;
+                                        }
+
+                                        /*~~(calls instance method size)~~>*/private int sized() {
+                                            return one() + size();
+                                        }
+
+                                        int size() {
+                                            return 0;
+                                        }
+
+                                        /*~~(serialization hook of a Serializable class)~~>*/private void writeObject(ObjectOutputStream out) {
+                                        }
+                                    }
+                                """
+                )
+        );
+    }
+
+    private static ExecutionContext nameBased() {
+        return withFlag(MethodNotAccessingInstanceDataShouldBeStatic.NAME_BASED_CONTEXT_KEY);
+    }
+
+    private static ExecutionContext withFlag(String key) {
+        ExecutionContext ctx = new InMemoryExecutionContext(t -> {
+            throw new AssertionError(t);
+        });
+        ctx.putMessage(key, true);
+        return ctx;
+    }
+
+    private static ExecutionContext withSupertypeMembers(String type, Set<String> staticFields,
+                                                         Set<String> staticMethods) {
+        ExecutionContext ctx = new InMemoryExecutionContext(t -> {
+            throw new AssertionError(t);
+        });
+        ctx.putMessage(SupertypeMembers.CONTEXT_KEY, new SupertypeMembers() {
+            @Override
+            public Set<String> getStaticFields(String fullyQualifiedName) {
+                return fullyQualifiedName.equals(type) ? staticFields : null;
+            }
+
+            @Override
+            public Set<String> getStaticMethods(String fullyQualifiedName) {
+                return fullyQualifiedName.equals(type) ? staticMethods : null;
+            }
+        });
+        return ctx;
+    }
 }